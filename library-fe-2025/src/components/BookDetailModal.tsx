@@ -114,10 +114,14 @@ export default function BookDetailModal({ isOpen, onClose, book, onUpdate }: Boo
     const handleBorrowClick = async () => {
         if (!isAuthenticated) return alert("Please login to borrow!");
         if (!currentBook) return;
-        if (confirm(`Send borrow request for "${currentBook.title}"?`)) {
+        const prompt = currentBook.available
+            ? `Send borrow request for "${currentBook.title}"?`
+            : `"${currentBook.title}" is out of copies. Join the waitlist?`;
+        if (confirm(prompt)) {
             try {
-                await requestService.createBorrowRequest(currentBook.id);
-                alert("Request sent! Please wait for approval.");
+                // Hết bản thì be xếp hàng chờ và trả về thông báo tương ứng
+                const response = await requestService.createBorrowRequest(currentBook.id);
+                alert(response.data || "Request sent! Please wait for approval.");
                 onClose();
             } catch (error: any) {
                 alert("Error: " + (error.response?.data?.message || "Failed to request"));
@@ -151,9 +155,9 @@ export default function BookDetailModal({ isOpen, onClose, book, onUpdate }: Boo
                         <img src={currentBook.coverUrl} alt={currentBook.title} className="w-full h-full object-cover" />
                     </div>
                     <div className="w-full space-y-3">
-                        <button onClick={handleBorrowClick} disabled={!currentBook.available}
-                                className={`w-full py-3 rounded-xl font-bold text-white transition-all ${currentBook.available ? "bg-blue-600 hover:bg-blue-700 shadow-lg" : "bg-gray-400 cursor-not-allowed"}`}>
-                            {currentBook.available ? "Borrow This Book" : "Currently Unavailable"}
+                        <button onClick={handleBorrowClick}
+                                className={`w-full py-3 rounded-xl font-bold text-white transition-all ${currentBook.available ? "bg-blue-600 hover:bg-blue-700 shadow-lg" : "bg-amber-500 hover:bg-amber-600 shadow-lg"}`}>
+                            {currentBook.available ? "Borrow This Book" : "Join Waitlist"}
                         </button>
                         {!currentBook.available && (
                             <button onClick={handleSubscribe} className="w-full py-3 rounded-xl font-bold text-blue-600 bg-blue-50 hover:bg-blue-100 border border-blue-200">
@@ -1,17 +1,55 @@
 import {
     XAxis, YAxis, Tooltip, CartesianGrid, ResponsiveContainer, AreaChart, Area
 } from "recharts";
-import type {ChartData} from "../services/dashboardService";
+import type {ChartBucket, ChartData, ChartRange} from "../services/dashboardService";
+
+const RANGES: { value: ChartRange; label: string }[] = [
+    { value: 7, label: '7 days' },
+    { value: 30, label: '30 days' },
+    { value: 90, label: '90 days' },
+    { value: 365, label: '1 year' },
+    { value: 1825, label: '5 years' },
+];
+const BUCKETS: { value: ChartBucket; label: string }[] = [
+    { value: 'DAY', label: 'Daily' },
+    { value: 'WEEK', label: 'Weekly' },
+    { value: 'MONTH', label: 'Monthly' },
+];
 
 interface LoanChartProps {
     data: ChartData[];
+    range: ChartRange;
+    bucket: ChartBucket;
+    onChange: (range: ChartRange, bucket: ChartBucket) => void;
 }
 
-const LoanChart = ({ data }: LoanChartProps) => {
+const LoanChart = ({ data, range, bucket, onChange }: LoanChartProps) => {
     return (
         <div className="bg-white p-6 rounded-lg shadow-sm border border-gray-100 h-full">
-            <h3 className="text-lg font-bold text-purple-800 mb-1">Loans Overview</h3>
-            <p className="text-sm text-gray-500 mb-6">Number of books borrowed in the last 7 days</p>
+            <div className="flex items-start justify-between gap-4 mb-6">
+                <div>
+                    <h3 className="text-lg font-bold text-purple-800 mb-1">Loans Overview</h3>
+                    <p className="text-sm text-gray-500">
+                        Books borrowed and returned in the last {RANGES.find(r => r.value === range)?.label}, {BUCKETS.find(b => b.value === bucket)?.label.toLowerCase()}
+                    </p>
+                </div>
+                <div className="flex gap-2">
+                    <select
+                        value={range}
+                        onChange={e => onChange(Number(e.target.value) as ChartRange, bucket)}
+                        className="border border-gray-200 rounded-md px-2 py-1 text-sm text-gray-700"
+                    >
+                        {RANGES.map(r => <option key={r.value} value={r.value}>{r.label}</option>)}
+                    </select>
+                    <select
+                        value={bucket}
+                        onChange={e => onChange(range, e.target.value as ChartBucket)}
+                        className="border border-gray-200 rounded-md px-2 py-1 text-sm text-gray-700"
+                    >
+                        {BUCKETS.map(b => <option key={b.value} value={b.value}>{b.label}</option>)}
+                    </select>
+                </div>
+            </div>
 
             <div style={{ width: '100%', height: 300 }}>
                 <ResponsiveContainer>
@@ -31,11 +69,28 @@ const LoanChart = ({ data }: LoanChartProps) => {
                         <Area
                             type="monotone"
                             dataKey="value"
+                            name="Loans"
                             stroke="#9333ea"
                             strokeWidth={3}
                             fillOpacity={1}
                             fill="url(#colorValue)"
                         />
+                        <Area
+                            type="monotone"
+                            dataKey="returns"
+                            name="Returns"
+                            stroke="#10b981"
+                            strokeWidth={2}
+                            fillOpacity={0}
+                        />
+                        <Area
+                            type="monotone"
+                            dataKey="overdueReturns"
+                            name="Overdue returns"
+                            stroke="#f59e0b"
+                            strokeWidth={2}
+                            fillOpacity={0}
+                        />
                     </AreaChart>
                 </ResponsiveContainer>
             </div>
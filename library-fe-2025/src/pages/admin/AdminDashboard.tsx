@@ -2,11 +2,15 @@ import { useState, useEffect } from "react";
 import { Link } from "react-router-dom";
 import AdminNavbar from "../../components/AdminNavbar";
 import LoanChart from "../../components/LoanChart";
-import { DashboardService, type MetricsData } from "../../services/dashboardService";
+import { DashboardService, type ChartBucket, type ChartData, type ChartRange, type MetricsData } from "../../services/dashboardService";
 
 export default function AdminDashboard() {
     const [data, setData] = useState<MetricsData | null>(null);
     const [loading, setLoading] = useState(true);
+    const [chart, setChart] = useState<ChartData[]>([]);
+    const [range, setRange] = useState<ChartRange>(7);
+    const [bucket, setBucket] = useState<ChartBucket>('DAY');
+    const [refreshing, setRefreshing] = useState(false);
 
     useEffect(() => {
         const fetchMetrics = async () => {
@@ -14,6 +18,7 @@ export default function AdminDashboard() {
                 setLoading(true);
                 const res = await DashboardService.getMetrics();
                 setData(res);
+                setChart(res.loanChart);
             } catch (err) {
                 console.error('Error fetching dashboard metrics:', err);
             } finally {
@@ -23,6 +28,31 @@ export default function AdminDashboard() {
         fetchMetrics();
     }, []);
 
+    // Số liệu lấy từ snapshot của server; bấm refresh để server tính lại ngay
+    const handleRefresh = async () => {
+        try {
+            setRefreshing(true);
+            const res = await DashboardService.refresh();
+            setData(res);
+            setChart(range === 7 && bucket === 'DAY' ? res.loanChart : await DashboardService.getLoanChart(range, bucket));
+        } catch (err) {
+            console.error('Error refreshing dashboard:', err);
+        } finally {
+            setRefreshing(false);
+        }
+    };
+
+    // Đổi khoảng thời gian/mốc chỉ tải lại biểu đồ
+    const handleChartChange = async (newRange: ChartRange, newBucket: ChartBucket) => {
+        setRange(newRange);
+        setBucket(newBucket);
+        try {
+            setChart(await DashboardService.getLoanChart(newRange, newBucket));
+        } catch (err) {
+            console.error('Error fetching loan chart:', err);
+        }
+    };
+
     if (loading) {
         return (
             <div className="min-h-screen bg-purple-50 flex items-center justify-center">
@@ -38,9 +68,25 @@ export default function AdminDashboard() {
 
             <div className="min-h-screen bg-purple-50 p-6">
                 <div className="max-w-7xl mx-auto">
-                    <div className="mb-8">
-                        <h2 className="text-3xl font-bold text-gray-800">Welcome back, Admin! 👋</h2>
-                        <p className="text-gray-600 mt-2">Here's the real-time overview of your library.</p>
+                    <div className="mb-8 flex items-end justify-between gap-4">
+                        <div>
+                            <h2 className="text-3xl font-bold text-gray-800">Welcome back, Admin! 👋</h2>
+                            <p className="text-gray-600 mt-2">Here's the overview of your library.</p>
+                        </div>
+                        <div className="flex items-center gap-3">
+                            {data?.generatedAt && (
+                                <span className="text-sm text-gray-500">
+                                    Updated {new Date(data.generatedAt).toLocaleTimeString()}
+                                </span>
+                            )}
+                            <button
+                                onClick={handleRefresh}
+                                disabled={refreshing}
+                                className="px-3 py-1.5 text-sm font-medium rounded-md bg-purple-600 text-white hover:bg-purple-700 disabled:opacity-50"
+                            >
+                                {refreshing ? 'Refreshing...' : 'Refresh'}
+                            </button>
+                        </div>
                     </div>
 
                     {/* Library Stats */}
@@ -62,12 +108,12 @@ export default function AdminDashboard() {
                     <div className="grid grid-cols-1 lg:grid-cols-3 gap-8">
                         {/* CHART */}
                         <div className="lg:col-span-2">
-                            <LoanChart data={data?.loanChart || []} />
+                            <LoanChart data={chart} range={range} bucket={bucket} onChange={handleChartChange} />
                         </div>
 
                         {/* TRENDING */}
                         <div className="bg-white rounded-lg shadow-sm border border-gray-100 p-6">
-                            <h3 className="text-lg font-bold text-purple-700 mb-4">🔥 Top Borrowed Books</h3>
+                            <h3 className="text-lg font-bold text-purple-700 mb-4">🔥 Top Borrowed Books (30 days)</h3>
                             {data?.trendingBooks && data.trendingBooks.length > 0 ? (
                                 <div className="space-y-4">
                                     {data.trendingBooks.map((book, index) => (
@@ -1,17 +1,31 @@
 import { useState, useEffect } from "react";
 import AdminNavbar from "../../components/AdminNavbar";
-import { bookLoanService, type BookLoan } from "../../services/bookLoanService";
+import { bookLoanService, type LoanSummary } from "../../services/bookLoanService";
+
+const PAGE_SIZE = 20;
 
 export default function LoansManage() {
-    const [loans, setLoans] = useState<BookLoan[]>([]);
+    const [loans, setLoans] = useState<LoanSummary[]>([]);
     const [loading, setLoading] = useState(true);
     const [searchTerm, setSearchTerm] = useState("");
+    const [status, setStatus] = useState("ALL");
+    const [from, setFrom] = useState("");
+    const [to, setTo] = useState("");
+    const [page, setPage] = useState(1);
+    const [totalPages, setTotalPages] = useState(0);
 
     const fetchLoans = async () => {
         setLoading(true);
         try {
-            const data = await bookLoanService.getAllLoansAdmin();
-            setLoans(data);
+            const data = await bookLoanService.getAllLoansAdmin({
+                page,
+                size: PAGE_SIZE,
+                status: status === "ALL" ? undefined : status,
+                from: from || undefined,
+                to: to || undefined,
+            });
+            setLoans(data.data);
+            setTotalPages(data.totalPages);
         } catch (error) {
             console.error("Failed to load loans", error);
         } finally {
@@ -21,7 +35,12 @@ export default function LoansManage() {
 
     useEffect(() => {
         fetchLoans();
-    }, []);
+    }, [page, status, from, to]);
+
+    // Đổi bộ lọc thì quay về trang 1
+    useEffect(() => {
+        setPage(1);
+    }, [status, from, to]);
 
     const handleReturnBook = async (id: number) => {
         if (!window.confirm("Confirm return for this book?")) return;
@@ -34,10 +53,10 @@ export default function LoansManage() {
         }
     };
 
-    // Filter local
+    // Filter local trong trang hiện tại
     const filteredLoans = loans.filter(loan =>
-        loan.user.username.toLowerCase().includes(searchTerm.toLowerCase()) ||
-        loan.bookCopy.book.title.toLowerCase().includes(searchTerm.toLowerCase())
+        loan.userName.toLowerCase().includes(searchTerm.toLowerCase()) ||
+        loan.bookTitle.toLowerCase().includes(searchTerm.toLowerCase())
     );
 
     return (
@@ -49,13 +68,37 @@ export default function LoansManage() {
                 <div className="max-w-7xl mx-auto">
                     <div className="flex justify-between items-center mb-6">
                         <h2 className="text-2xl font-bold text-purple-800">Loans Management</h2>
-                        <input
-                            type="text"
-                            placeholder="Search user or book..."
-                            className="px-4 py-2 border border-purple-200 rounded-lg focus:outline-none focus:ring-2 focus:ring-purple-400 w-64"
-                            value={searchTerm}
-                            onChange={(e) => setSearchTerm(e.target.value)}
-                        />
+                        <div className="flex items-center gap-2">
+                            <select
+                                className="px-3 py-2 border border-purple-200 rounded-lg focus:outline-none focus:ring-2 focus:ring-purple-400"
+                                value={status}
+                                onChange={(e) => setStatus(e.target.value)}
+                            >
+                                <option value="ALL">All statuses</option>
+                                <option value="BORROWED">Borrowed</option>
+                                <option value="RETURNED">Returned</option>
+                            </select>
+                            <input
+                                type="date"
+                                className="px-3 py-2 border border-purple-200 rounded-lg focus:outline-none focus:ring-2 focus:ring-purple-400"
+                                value={from}
+                                onChange={(e) => setFrom(e.target.value)}
+                            />
+                            <span className="text-gray-500">-</span>
+                            <input
+                                type="date"
+                                className="px-3 py-2 border border-purple-200 rounded-lg focus:outline-none focus:ring-2 focus:ring-purple-400"
+                                value={to}
+                                onChange={(e) => setTo(e.target.value)}
+                            />
+                            <input
+                                type="text"
+                                placeholder="Search user or book..."
+                                className="px-4 py-2 border border-purple-200 rounded-lg focus:outline-none focus:ring-2 focus:ring-purple-400 w-64"
+                                value={searchTerm}
+                                onChange={(e) => setSearchTerm(e.target.value)}
+                            />
+                        </div>
                     </div>
 
                     <div className="bg-white rounded-xl shadow-lg overflow-hidden border border-gray-100">
@@ -81,10 +124,10 @@ export default function LoansManage() {
                                     <tr key={loan.id} className="hover:bg-purple-50">
                                         <td className="px-6 py-4 text-gray-500">#{loan.id}</td>
                                         <td className="px-6 py-4 font-medium text-gray-800">
-                                            {loan.bookCopy.book.title}
-                                            <div className="text-xs text-gray-400">Copy ID: {loan.bookCopy.id}</div>
+                                            {loan.bookTitle}
+                                            <div className="text-xs text-gray-400">Copy ID: {loan.copyId}</div>
                                         </td>
-                                        <td className="px-6 py-4 font-bold text-gray-700">{loan.user.username}</td>
+                                        <td className="px-6 py-4 font-bold text-gray-700">{loan.userName}</td>
                                         <td className="px-6 py-4 text-sm text-gray-600">
                                             {new Date(loan.loanDate).toLocaleDateString()}
                                         </td>
@@ -114,6 +157,28 @@ export default function LoansManage() {
                             </tbody>
                         </table>
                     </div>
+
+                    {totalPages > 1 && (
+                        <div className="flex justify-center items-center space-x-2 mt-6">
+                            <button
+                                onClick={() => setPage(p => Math.max(1, p - 1))}
+                                disabled={page === 1}
+                                className={`px-4 py-2 rounded-lg border ${page === 1 ? 'bg-gray-100 text-gray-400 cursor-not-allowed' : 'bg-white text-purple-600 hover:bg-purple-50 border-purple-200'}`}
+                            >
+                                &larr; Previous
+                            </button>
+                            <span className="px-4 py-2 font-medium text-gray-700">
+                                Page {page} of {totalPages}
+                            </span>
+                            <button
+                                onClick={() => setPage(p => Math.min(totalPages, p + 1))}
+                                disabled={page === totalPages}
+                                className={`px-4 py-2 rounded-lg border ${page === totalPages ? 'bg-gray-100 text-gray-400 cursor-not-allowed' : 'bg-white text-purple-600 hover:bg-purple-50 border-purple-200'}`}
+                            >
+                                Next &rarr;
+                            </button>
+                        </div>
+                    )}
                 </div>
             </div>
         </>
@@ -18,6 +18,7 @@ export default function UserDashboard() {
     const [finesList, setFinesList] = useState<Fine[]>([]);
     const [requestsList, setRequestsList] = useState<BookRequest[]>([]);
     const [books, setBooks] = useState<Book[]>([]);
+    const [popularBooks, setPopularBooks] = useState<Book[]>([]);
     // UI State
     const [selectedBook, setSelectedBook] = useState<Book | null>(null);
     const [isDetailOpen, setIsDetailOpen] = useState(false);
@@ -35,6 +36,12 @@ export default function UserDashboard() {
         } catch (e) {
             console.error("Lỗi load sách:", e);
         }
+        // Lấy sách đang được mượn nhiều 7 ngày qua
+        try {
+            setPopularBooks(await bookService.getPopularBooks('7d', 4));
+        } catch (e) {
+            console.error("Lỗi load sách phổ biến:", e);
+        }
         // Lấy Loans
         try {
             const loansRes = await bookLoanService.getMyLoans();
@@ -187,6 +194,23 @@ export default function UserDashboard() {
                             </div>
                         )}
 
+                        {/* POPULAR NOW */}
+                        {popularBooks.length > 0 && (
+                            <div className="bg-white rounded-lg shadow-md p-6 mb-6">
+                                <h3 className="text-lg font-semibold text-blue-700 mb-4">🔥 Popular Now</h3>
+                                <div className="grid grid-cols-1 sm:grid-cols-2 lg:grid-cols-4 gap-6">
+                                    {popularBooks.map(book => (
+                                        <BookCard
+                                            key={book.id}
+                                            book={book}
+                                            onBorrow={handleBorrowBook}
+                                            onClick={handleBookClick}
+                                        />
+                                    ))}
+                                </div>
+                            </div>
+                        )}
+
                         {/* RECOMMENDED BOOKS */}
                         <div className="bg-white rounded-lg shadow-md p-6 mb-6">
                             <div className="flex justify-between items-center mb-4">
@@ -7,12 +7,13 @@ export default function UserLoaned() {
     const [loading, setLoading] = useState(true);
     // State Filter
     const [filterStatus, setFilterStatus] = useState<string>(''); // Mặc định là '' (All)
+    const [showHistory, setShowHistory] = useState(false); // Mặc định không lấy phiếu đã lưu trữ
 
     const fetchLoans = async () => {
         setLoading(true);
         try {
             // Call API kèm filterStatus hiện tại
-            const data = await bookLoanService.getMyLoans(filterStatus);
+            const data = await bookLoanService.getMyLoans(filterStatus, showHistory);
             setLoans(data);
         } catch (error) {
             console.error("Lỗi tải danh sách mượn:", error);
@@ -22,7 +23,7 @@ export default function UserLoaned() {
     };
     useEffect(() => {
         fetchLoans();
-    }, [filterStatus]);
+    }, [filterStatus, showHistory]);
 
     // Helper Styles
     const getStatusClass = (status: string, dueDateStr: string) => {
@@ -60,6 +61,15 @@ export default function UserLoaned() {
                                 <option value="BORROWED">Active (Borrowed)</option>
                                 <option value="RETURNED">Returned</option>
                             </select>
+                            <label className="flex items-center ml-4 text-gray-700">
+                                <input
+                                    type="checkbox"
+                                    className="mr-2"
+                                    checked={showHistory}
+                                    onChange={(e) => setShowHistory(e.target.checked)}
+                                />
+                                Include older history
+                            </label>
                         </div>
                         <div className="text-sm text-gray-600">
                             Showing {loans.length} records
@@ -1,4 +1,5 @@
 import axiosClient from '../api/axiosClient';
+import type {PageResponse} from '../types/book';
 
 export interface BookLoan {
     id: number;
@@ -23,15 +24,43 @@ export interface BookLoan {
     status: 'BORROWED' | 'RETURNED' | 'OVERDUE';
 }
 
+// Dòng trong danh sách phiếu mượn của admin (LoanResponse của be)
+export interface LoanSummary {
+    id: number;
+    bookId: number;
+    bookTitle: string;
+    copyId: number;
+    userId: number;
+    userName: string;
+    loanDate: string;
+    dueDate: string;
+    returnDate?: string | null;
+    status: BookLoan['status'];
+}
+
+export interface LoanFilters {
+    page?: number;
+    size?: number;
+    status?: string;
+    userId?: number;
+    bookId?: number;
+    from?: string; // yyyy-MM-dd
+    to?: string;
+    history?: boolean;
+}
+
 export const bookLoanService = {
-    getMyLoans: async (status?: string) => {
+    // history = true: lấy cả các phiếu cũ đã lưu trữ
+    getMyLoans: async (status?: string, history?: boolean) => {
         return (await axiosClient.get<BookLoan[]>('/loans/my-loans', {
-            params: { status }
+            params: { status, history }
         })).data;
     },
 
-    getAllLoansAdmin: async () => {
-        const response = await axiosClient.get<BookLoan[]>('/loans/admin/all');
+    getAllLoansAdmin: async (filters: LoanFilters = {}) => {
+        const response = await axiosClient.get<PageResponse<LoanSummary>>('/loans/admin/all', {
+            params: filters
+        });
         return response.data;
     },
 
@@ -18,6 +18,37 @@ export interface BookRequest {
     createdAt: string;
 }
 
+// Lượt xếp hàng chờ khi sách hết bản
+export interface BookHold {
+    id: number;
+    book: {
+        id: number;
+        title: string;
+        coverUrl: string;
+    };
+    status: 'WAITING' | 'READY' | 'FULFILLED' | 'CANCELLED';
+    createdAt: string;
+    updatedAt: string;
+}
+
+export interface BatchDecision {
+    requestId: number;
+    status: 'ACCEPTED' | 'DENIED';
+}
+
+export interface BatchProcessResult {
+    accepted: number;
+    denied: number;
+    failed: number;
+    results: {
+        requestId: number;
+        success: boolean;
+        status: 'ACCEPTED' | 'DENIED' | null;
+        loanId: number | null;
+        message: string | null;
+    }[];
+}
+
 export const requestService = {
     createBorrowRequest: async (bookId: number) => {
         // Backend nhận { bookId: ... }
@@ -40,6 +71,21 @@ export const requestService = {
         });
     },
 
+    // Duyệt/Từ chối nhiều yêu cầu trong 1 lần gọi, kết quả trả về theo từng yêu cầu
+    processBatchAdmin: async (items: BatchDecision[]) => {
+        const response = await axiosClient.post<BatchProcessResult>('/requests/admin/process-batch', { items });
+        return response.data;
+    },
+
+    getMyHolds: async () => {
+        const response = await axiosClient.get<BookHold[]>('/requests/my-holds');
+        return response.data;
+    },
+
+    cancelHold: async (id: number) => {
+        return await axiosClient.delete(`/requests/holds/${id}`);
+    },
+
     cancelRequest: async (id: number) => {
         return await axiosClient.delete(`/requests/${id}`);
     }
@@ -1,5 +1,5 @@
 import axiosClient from '../api/axiosClient';
-import type {Book, PageResponse} from '../types/book';
+import type {Book, PageResponse, Suggestion} from '../types/book';
 
 export interface Author { id: number; name: string; }
 export interface Category { id: number; name: string; }
@@ -18,10 +18,32 @@ export const bookService = {
         return response.data;
     },
 
+    suggest: async (q: string, limit: number = 8) => {
+        const response = await axiosClient.get<Suggestion[]>('/public/suggest', {
+            params: { q, limit }
+        });
+        return response.data;
+    },
+
     getBookById: async (id: number) => {
         const response = await axiosClient.get<Book>(`/public/books/${id}`);
         return response.data;
     },
+    // Lấy nhiều sách trong 1 request, kết quả giữ thứ tự ids
+    getBooksByIds: async (ids: number[]) => {
+        if (ids.length === 0) return [];
+        const response = await axiosClient.get<Book[]>('/public/books/batch', {
+            params: { ids: ids.join(',') }
+        });
+        return response.data;
+    },
+    // Sách đang được mượn nhiều trong cửa sổ 24h | 7d | 30d
+    getPopularBooks: async (window: '24h' | '7d' | '30d' = '7d', limit = 10) => {
+        const response = await axiosClient.get<Book[]>('/public/books/popular', {
+            params: { window, limit }
+        });
+        return response.data;
+    },
     getAuthors: async () => {
         const response = await axiosClient.get<Author[]>('/public/authors');
         return response.data;
@@ -2,9 +2,15 @@ import axiosClient from '../api/axiosClient';
 
 export interface ChartData {
     date: string;
-    value: number;
+    value: number; // Loans
+    returns: number;
+    overdueReturns: number;
+    finesIssued: number;
 }
 
+export type ChartRange = 7 | 30 | 90 | 365 | 1825;
+export type ChartBucket = 'DAY' | 'WEEK' | 'MONTH';
+
 export interface TrendingBook {
     id: number;
     title: string;
@@ -21,11 +27,23 @@ export interface MetricsData {
     pendingRequests: number;
     loanChart: ChartData[];
     trendingBooks: TrendingBook[];
+    generatedAt: string;
 }
 
 export const DashboardService = {
-    getMetrics: async (): Promise<MetricsData> => {
-        const response = await axiosClient.get<MetricsData>('/admin/dashboard');
+    getMetrics: async (range: ChartRange = 7, bucket: ChartBucket = 'DAY'): Promise<MetricsData> => {
+        const response = await axiosClient.get<MetricsData>('/admin/dashboard', { params: { range, bucket } });
+        return response.data;
+    },
+
+    // Tính lại snapshot dashboard ngay (bình thường server làm mới định kỳ)
+    refresh: async (): Promise<MetricsData> => {
+        const response = await axiosClient.post<MetricsData>('/admin/dashboard/refresh');
+        return response.data;
+    },
+
+    getLoanChart: async (range: ChartRange, bucket: ChartBucket, categoryId?: number): Promise<ChartData[]> => {
+        const response = await axiosClient.get<ChartData[]>('/admin/dashboard/loan-chart', { params: { range, bucket, categoryId } });
         return response.data;
     }
 };
\ No newline at end of file
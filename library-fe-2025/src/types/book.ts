@@ -9,6 +9,28 @@ export interface Book {
     authors: string[];
     categories: string[];
     available: boolean;
+    availableCopies: number;
+}
+
+export interface FacetCount {
+    id: number;
+    name: string;
+    count: number;
+}
+
+export interface BookFacets {
+    categories: FacetCount[];
+    authors: FacetCount[];
+    publishers: FacetCount[];
+    available: number;
+    unavailable: number;
+    truncated: boolean; // true: chỉ đếm trên phần kết quả liên quan nhất, không phải số chính xác
+}
+
+export interface Suggestion {
+    type: 'BOOK' | 'AUTHOR' | 'CATEGORY';
+    id: number;
+    text: string;
 }
 
 // Khớp với PageResponse của be
@@ -18,4 +40,6 @@ export interface PageResponse<T> {
     pageSize: number;
     totalElements: number;
     data: T[];
+    nextCursor?: string; // chỉ có khi gọi với tham số after (phân trang theo cursor)
+    facets?: BookFacets; // chỉ có khi gọi với facets=true
 }
\ No newline at end of file
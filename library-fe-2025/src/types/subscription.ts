@@ -6,6 +6,5 @@ export interface Subscription {
         title: string;
         coverUrl: string;
         description: string;
-        authors: { name: string }[];
     };
 }
\ No newline at end of file
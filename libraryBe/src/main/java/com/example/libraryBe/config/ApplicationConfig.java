@@ -24,7 +24,7 @@ public class ApplicationConfig {
 
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByUsername(username)
+        return username -> userRepository.findWithAuthoritiesByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
@@ -0,0 +1,22 @@
+package com.example.libraryBe.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "application.catalog")
+@Data
+public class CatalogProperties {
+    private String searchBackend = "memory";
+    private Cache cache = new Cache();
+
+    @Data
+    public static class Cache {
+        private int maxBooks = 10_000;
+        private int maxPages = 1_000;
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+}
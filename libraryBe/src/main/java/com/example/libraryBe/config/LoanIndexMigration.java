@@ -0,0 +1,24 @@
+package com.example.libraryBe.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+// Partial index chỉ chứa phiếu chưa lưu trữ (Hibernate không tạo được index có WHERE)
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class LoanIndexMigration {
+
+    private final DataSource dataSource;
+
+    @PostConstruct
+    void migrate() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/loan-indexes.sql")).execute(dataSource);
+    }
+}
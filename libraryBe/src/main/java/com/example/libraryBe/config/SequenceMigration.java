@@ -0,0 +1,24 @@
+package com.example.libraryBe.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+// Đồng bộ sequence với dữ liệu cũ (bảng tạo từ thời dùng IDENTITY), chạy sau khi Hibernate tạo sequence
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class SequenceMigration {
+
+    private final DataSource dataSource;
+
+    @PostConstruct
+    void migrate() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/sequences.sql")).execute(dataSource);
+    }
+}
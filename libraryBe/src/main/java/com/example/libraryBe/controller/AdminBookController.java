@@ -1,19 +1,25 @@
 package com.example.libraryBe.controller;
 
 import com.example.libraryBe.dto.BookRequest;
+import com.example.libraryBe.dto.ImportResult;
 import com.example.libraryBe.entity.Book;
 import com.example.libraryBe.service.AdminBookService;
+import com.example.libraryBe.service.BookImportService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/api/v1/admin/books")
 @RequiredArgsConstructor
 public class AdminBookController {
 
     private final AdminBookService adminBookService;
+    private final BookImportService bookImportService;
 
     @PostMapping
     @PreAuthorize("hasAuthority('BOOK_CREATE')")
@@ -43,4 +49,14 @@ public class AdminBookController {
         adminBookService.addCopies(id, amount);
         return ResponseEntity.ok("Successfully added " + amount + " copies.");
     }
-}
\ No newline at end of file
+
+    // Nhập hàng loạt: body là file CSV (text/csv, có header) hoặc NDJSON (application/x-ndjson), đọc dạng stream
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasAuthority('BOOK_CREATE')")
+    public ResponseEntity<ImportResult> importBooks(HttpServletRequest request) throws IOException {
+        BookImportService.Format format = request.getContentType().startsWith("text/csv")
+                ? BookImportService.Format.CSV
+                : BookImportService.Format.NDJSON;
+        return ResponseEntity.ok(bookImportService.importBooks(request.getInputStream(), format));
+    }
+}
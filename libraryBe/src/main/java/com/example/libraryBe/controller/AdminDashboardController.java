@@ -1,24 +1,61 @@
 package com.example.libraryBe.controller;
 
+import com.example.libraryBe.dto.CacheStatsResponse;
 import com.example.libraryBe.dto.DashboardResponse;
 import com.example.libraryBe.service.AdminDashboardService;
+import com.example.libraryBe.service.BookCatalogCache;
+import com.example.libraryBe.service.DashboardSnapshot;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/admin/dashboard")
 @RequiredArgsConstructor
 public class AdminDashboardController {
 
     private final AdminDashboardService dashboardService;
+    private final DashboardSnapshot dashboardSnapshot;
+    private final BookCatalogCache catalogCache;
 
     @GetMapping
     @PreAuthorize("hasAuthority('DASHBOARD_VIEW')")
-    public ResponseEntity<DashboardResponse> getDashboardMetrics() {
-        return ResponseEntity.ok(dashboardService.getDashboardData());
+    public ResponseEntity<DashboardResponse> getDashboardMetrics(
+            @RequestParam(defaultValue = "7") int range,
+            @RequestParam(defaultValue = "DAY") AdminDashboardService.ChartBucket bucket
+    ) {
+        return ResponseEntity.ok(dashboardSnapshot.get(range, bucket));
+    }
+
+    // Tính lại snapshot ngay thay vì chờ lượt làm mới định kỳ
+    @PostMapping("/refresh")
+    @PreAuthorize("hasAuthority('DASHBOARD_VIEW')")
+    public ResponseEntity<DashboardResponse> refreshDashboard() {
+        return ResponseEntity.ok(dashboardSnapshot.refresh());
+    }
+
+    // Chỉ biểu đồ mượn sách, để đổi khoảng thời gian/mốc mà không tải lại cả dashboard
+    @GetMapping("/loan-chart")
+    @PreAuthorize("hasAuthority('DASHBOARD_VIEW')")
+    public ResponseEntity<List<DashboardResponse.ChartData>> getLoanChart(
+            @RequestParam(defaultValue = "7") int range,
+            @RequestParam(defaultValue = "DAY") AdminDashboardService.ChartBucket bucket,
+            @RequestParam(required = false) Long categoryId
+    ) {
+        return ResponseEntity.ok(dashboardService.getLoanChartData(range, bucket, categoryId));
+    }
+
+    // Hit/miss của cache catalog public
+    @GetMapping("/cache-stats")
+    @PreAuthorize("hasAuthority('DASHBOARD_VIEW')")
+    public ResponseEntity<List<CacheStatsResponse>> getCacheStats() {
+        return ResponseEntity.ok(catalogCache.getStats());
     }
 }
\ No newline at end of file
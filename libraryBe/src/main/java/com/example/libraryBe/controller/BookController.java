@@ -2,16 +2,24 @@ package com.example.libraryBe.controller;
 
 import com.example.libraryBe.dto.BookResponse;
 import com.example.libraryBe.dto.PageResponse;
+import com.example.libraryBe.dto.SuggestionResponse;
 import com.example.libraryBe.entity.Author;
 import com.example.libraryBe.entity.Category;
 import com.example.libraryBe.service.AuthorService;
 import com.example.libraryBe.service.BookService;
+import com.example.libraryBe.service.CatalogVersions;
 import com.example.libraryBe.service.CategoryService;
+import com.example.libraryBe.service.SuggestionIndex;
+import com.example.libraryBe.service.TrendingBooks;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/v1/public")
@@ -21,6 +29,9 @@ public class BookController {
     private final BookService bookService;
     private final AuthorService authorService;
     private final CategoryService categoryService;
+    private final SuggestionIndex suggestionIndex;
+    private final CatalogVersions catalogVersions;
+    private final TrendingBooks trendingBooks;
 
     @GetMapping("/books")
     public ResponseEntity<PageResponse<BookResponse>> getAllBooks(
@@ -28,23 +39,67 @@ public class BookController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) Long authorId,
-            @RequestParam(required = false) Long categoryId
+            @RequestParam(required = false) Long categoryId,
+            // Có tham số after (trang đầu gửi after rỗng) thì phân trang theo cursor thay cho page
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean facets
     ) {
-        return ResponseEntity.ok(bookService.getAllBooks(page, size, search, authorId, categoryId));
+        PageResponse<BookResponse> result = after != null
+                ? bookService.getBooksAfter(after, size, search, authorId, categoryId)
+                : bookService.getAllBooks(page, size, search, authorId, categoryId);
+        if (facets) {
+            // Trang lấy từ cache dùng chung nên tạo bản sao thay vì sửa trực tiếp
+            result = result.toBuilder().facets(bookService.getFacets(search, authorId, categoryId)).build();
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    // Nhiều sách trong 1 request: /books/batch?ids=1,2,3 (giữ nguyên thứ tự ids)
+    @GetMapping("/books/batch")
+    public ResponseEntity<List<BookResponse>> getBooksByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(bookService.getBooksByIds(ids));
+    }
+
+    // Sách đang được mượn nhiều: window = 24h | 7d | 30d, xếp theo số lượt mượn gần đây (giảm dần theo thời gian)
+    @GetMapping("/books/popular")
+    public ResponseEntity<List<BookResponse>> getPopularBooks(
+            @RequestParam(defaultValue = "7d") String window,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        List<Long> ids = trendingBooks.top(TrendingBooks.Window.fromParam(window), Math.min(Math.max(limit, 1), 50))
+                .stream().map(TrendingBooks.Entry::bookId).toList();
+        return ResponseEntity.ok(bookService.getBooksByIds(ids));
     }
 
     @GetMapping("/books/{id}")
-    public ResponseEntity<BookResponse> getBookById(@PathVariable Long id) {
-        return ResponseEntity.ok(bookService.getBookById(id));
+    public ResponseEntity<BookResponse> getBookById(@PathVariable Long id, WebRequest request) {
+        return conditional(request, catalogVersions.bookTag(id), () -> bookService.getBookById(id));
+    }
+
+    // Gợi ý khi gõ vào ô tìm kiếm, đọc từ trie trong bộ nhớ thay vì gọi /books mỗi lần gõ phím
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit
+    ) {
+        return ResponseEntity.ok(suggestionIndex.suggest(q, limit));
     }
 
     @GetMapping("/authors")
-    public ResponseEntity<List<Author>> getAllAuthors() {
-        return ResponseEntity.ok(authorService.getAllAuthors());
+    public ResponseEntity<List<Author>> getAllAuthors(WebRequest request) {
+        return conditional(request, catalogVersions.authorsTag(), authorService::getAllAuthors);
     }
 
     @GetMapping("/categories")
-    public ResponseEntity<List<Category>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<List<Category>> getAllCategories(WebRequest request) {
+        return conditional(request, catalogVersions.categoriesTag(), categoryService::getAllCategories);
+    }
+
+    // ETag lấy trước khi đọc dữ liệu: khớp If-None-Match thì trả 304 luôn, không query DB
+    private <T> ResponseEntity<T> conditional(WebRequest request, String etag, Supplier<T> loader) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(loader.get());
     }
 }
\ No newline at end of file
@@ -1,8 +1,12 @@
 package com.example.libraryBe.controller;
 
+import com.example.libraryBe.dto.BatchProcessRequest;
+import com.example.libraryBe.dto.BatchProcessResult;
 import com.example.libraryBe.dto.LoanRequest;
+import com.example.libraryBe.entity.BookHold;
 import com.example.libraryBe.entity.BookRequest;
 import com.example.libraryBe.service.BookRequestService;
+import com.example.libraryBe.service.HoldService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,6 +22,7 @@ import java.util.List;
 public class BookRequestController {
 
     private final BookRequestService requestService;
+    private final HoldService holdService;
 
     @PostMapping("/borrow")
     @PreAuthorize("isAuthenticated()")
@@ -25,10 +30,31 @@ public class BookRequestController {
             @RequestBody LoanRequest requestDTO,
             @AuthenticationPrincipal UserDetails userDetails
     ) {
-        requestService.createBorrowRequest(userDetails.getUsername(), requestDTO.getBookId());
+        if (requestService.createBorrowRequest(userDetails.getUsername(), requestDTO.getBookId())) {
+            return ResponseEntity.ok("Sách hiện đã hết bản, bạn đã được xếp vào hàng chờ. "
+                    + "Khi có bản trả về, sách sẽ được giữ cho bạn và yêu cầu mượn được tạo tự động.");
+        }
         return ResponseEntity.ok("Yêu cầu mượn sách đã được gửi thành công! Vui lòng chờ Admin duyệt.");
     }
 
+    @GetMapping("/my-holds")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<BookHold>> getMyHolds(
+            @AuthenticationPrincipal UserDetails userDetails
+    ) {
+        return ResponseEntity.ok(holdService.getMyHolds(userDetails.getUsername()));
+    }
+
+    @DeleteMapping("/holds/{id}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<String> cancelHold(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetails userDetails
+    ) {
+        holdService.cancelHold(id, userDetails.getUsername());
+        return ResponseEntity.ok("Đã hủy lượt chờ thành công!");
+    }
+
     @GetMapping("/my-requests")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<List<BookRequest>> getMyRequests(
@@ -57,6 +83,13 @@ public class BookRequestController {
         }
     }
 
+    // Duyệt/Từ chối hàng loạt, body: { "items": [ { "requestId": 1, "status": "ACCEPTED" }, ... ] }
+    @PostMapping("/admin/process-batch")
+    @PreAuthorize("hasAuthority('LOAN_APPROVE')")
+    public ResponseEntity<BatchProcessResult> processBatch(@RequestBody BatchProcessRequest request) {
+        return ResponseEntity.ok(requestService.processBatch(request.getItems()));
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<String> cancelRequest(
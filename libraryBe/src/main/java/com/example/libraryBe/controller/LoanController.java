@@ -1,14 +1,18 @@
 package com.example.libraryBe.controller;
 
+import com.example.libraryBe.dto.LoanResponse;
+import com.example.libraryBe.dto.PageResponse;
 import com.example.libraryBe.entity.BookLoan;
 import com.example.libraryBe.service.LoanService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -22,15 +26,25 @@ public class LoanController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<List<BookLoan>> getMyLoans(
             @AuthenticationPrincipal UserDetails userDetails,
-            @RequestParam(required = false) String status
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "false") boolean history
     ) {
-        return ResponseEntity.ok(loanService.getMyLoans(userDetails.getUsername(), status));
+        return ResponseEntity.ok(loanService.getMyLoans(userDetails.getUsername(), status, history));
     }
 
     @GetMapping("/admin/all")
     @PreAuthorize("hasAuthority('LOAN_READ')")
-    public ResponseEntity<List<BookLoan>> getAllLoans() {
-        return ResponseEntity.ok(loanService.getAllLoans());
+    public ResponseEntity<PageResponse<LoanResponse>> getAllLoans(
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long bookId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean history
+    ) {
+        return ResponseEntity.ok(loanService.getAllLoans(page, size, status, userId, bookId, from, to, history));
     }
 
     @PutMapping("/admin/return/{id}")
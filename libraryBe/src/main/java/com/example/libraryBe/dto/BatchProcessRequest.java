@@ -0,0 +1,16 @@
+package com.example.libraryBe.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchProcessRequest {
+    private List<Item> items;
+
+    @Data
+    public static class Item {
+        private Long requestId;
+        private String status; // ACCEPTED / DENIED
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.libraryBe.dto;
+
+import com.example.libraryBe.model.RequestStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BatchProcessResult {
+    private int accepted;
+    private int denied;
+    private int failed;
+    private List<Outcome> results; // Cùng thứ tự với danh sách gửi lên
+
+    @Data
+    @AllArgsConstructor
+    public static class Outcome {
+        private Long requestId;
+        private boolean success;
+        private RequestStatus status; // Trạng thái mới, null nếu xử lý thất bại
+        private Long loanId;
+        private String message;
+    }
+}
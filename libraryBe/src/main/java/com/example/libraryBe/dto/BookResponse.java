@@ -20,4 +20,5 @@ public class BookResponse {
     private List<String> authors;
     private List<String> categories;
     private boolean available;
+    private long availableCopies;
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.example.libraryBe.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class CacheStatsResponse {
+    private String name;
+    private int size;
+    private long hits;
+    private long misses;
+    private double hitRate;
+}
@@ -2,10 +2,11 @@ package com.example.libraryBe.dto;
 
 import lombok.Builder;
 import lombok.Data;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class DashboardResponse {
     // Các chỉ số thẻ
     private long totalBooks;
@@ -16,17 +17,23 @@ public class DashboardResponse {
     private long activeLoans;
     private long pendingRequests;
 
-    // Dữ liệu biểu đồ (7 ngày qua)
+    // Dữ liệu biểu đồ lưu thông theo khoảng thời gian/mốc đã chọn
     private List<ChartData> loanChart;
 
     // Sách Trending
     private List<TrendingBook> trendingBooks;
 
+    // Thời điểm tính các số liệu (dashboard trả từ snapshot nên có thể cũ hơn thời điểm xem)
+    private LocalDateTime generatedAt;
+
     @Data
     @Builder
     public static class ChartData {
         private String date;
-        private long value;
+        private long value; // Số lượt mượn
+        private long returns;
+        private long overdueReturns;
+        private long finesIssued;
     }
 
     @Data
@@ -0,0 +1,26 @@
+package com.example.libraryBe.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+// Số sách theo từng thể loại/tác giả/NXB/tình trạng trong tập kết quả tìm kiếm
+@Data
+@Builder
+public class FacetResponse {
+    private List<FacetCount> categories;
+    private List<FacetCount> authors;
+    private List<FacetCount> publishers;
+    private long available;
+    private long unavailable;
+    // Tập kết quả quá lớn, các số đếm chỉ tính trên phần liên quan nhất (tổng không khớp totalElements)
+    private boolean truncated;
+
+    @Data
+    @Builder
+    public static class FacetCount {
+        private Long id;
+        private String name;
+        private long count;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.libraryBe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ImportResult {
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private List<RowError> errors; // Chỉ trả về tối đa 1000 lỗi đầu tiên
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
@@ -1,17 +1,27 @@
 package com.example.libraryBe.dto;
 
+import com.example.libraryBe.model.LoanStatus;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
+// Được tạo trực tiếp trong JPQL (SELECT new ...) nên thứ tự field phải khớp với câu query trong BookLoanRepository
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class LoanResponse {
     private Long id;
+    private Long bookId;
     private String bookTitle;
+    private Long copyId;
+    private Long userId;
     private String userName;
     private LocalDateTime loanDate;
     private LocalDateTime dueDate;
-    private String status;
-}
\ No newline at end of file
+    private LocalDateTime returnDate;
+    private LoanStatus status;
+}
@@ -1,5 +1,6 @@
 package com.example.libraryBe.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -7,13 +8,17 @@ import lombok.NoArgsConstructor;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PageResponse<T> {
-    private int currentPage;
-    private int totalPages;
+    // Phân trang theo cursor thì không có số trang/tổng số (bỏ qua COUNT), chỉ có nextCursor
+    private Integer currentPage;
+    private Integer totalPages;
     private int pageSize;
-    private long totalElements;
+    private Long totalElements;
     private List<T> data;
-}
\ No newline at end of file
+    private String nextCursor; // null nếu đã hết dữ liệu
+    private FacetResponse facets; // chỉ có khi /public/books gọi với facets=true
+}
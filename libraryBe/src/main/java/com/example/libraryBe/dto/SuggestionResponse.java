@@ -0,0 +1,15 @@
+package com.example.libraryBe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SuggestionResponse {
+
+    public enum Type { BOOK, AUTHOR, CATEGORY }
+
+    private Type type;
+    private Long id;
+    private String text;
+}
@@ -12,7 +12,8 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class Author {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "authors_seq")
+    @SequenceGenerator(name = "authors_seq", sequenceName = "authors_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -14,7 +14,8 @@ import java.util.Set;
 @Builder
 public class Book {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -27,24 +28,37 @@ public class Book {
 
     private Double rating;
 
+    // Số bản copy AVAILABLE / tổng số bản, chỉ được cộng trừ bằng BookRepository.adjustCopyCounts trong transaction
+    // đổi trạng thái copy (Hibernate không ghi 2 cột này khi lưu Book) và được CopyCountReconciler đối soát định kỳ
+    @Column(insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int availableCount;
+
+    @Column(insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int totalCount;
+
     @ManyToOne
     @JoinColumn(name = "publisher_id")
     private Publisher publisher;
 
-    @ManyToMany(fetch = FetchType.EAGER) // Load sách thì load luôn tác giả để hiển thị FE
+    // LAZY: nơi nào cần tác giả/thể loại thì khai báo qua @EntityGraph ở repository
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "book_authors",
             joinColumns = @JoinColumn(name = "book_id"),
             inverseJoinColumns = @JoinColumn(name = "author_id")
     )
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<Author> authors = new HashSet<>();
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "book_categories",
             joinColumns = @JoinColumn(name = "book_id"),
             inverseJoinColumns = @JoinColumn(name = "category_id")
     )
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<Category> categories = new HashSet<>();
 
     // Để JPA không xóa nhầm dữ liệu liên quan khi update
@@ -6,19 +6,20 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "book_copies")
+@Table(name = "book_copies", indexes = @Index(name = "idx_book_copies_book_status", columnList = "book_id, status"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class BookCopy {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_copies_seq")
+    @SequenceGenerator(name = "book_copies_seq", sequenceName = "book_copies_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id", nullable = false)
-    @JsonIgnoreProperties({"copies", "bookCopies", "hibernateLazyInitializer", "handler"})
+    @JsonIgnoreProperties({"copies", "bookCopies", "authors", "categories", "hibernateLazyInitializer", "handler"})
     private Book book;
 
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,58 @@
+package com.example.libraryBe.entity;
+
+import com.example.libraryBe.model.HoldStatus;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// Lượt xếp hàng chờ mượn sách khi sách đã hết bản, phục vụ theo thứ tự id (đến trước được trước)
+@Entity
+@Table(name = "book_holds", indexes = {
+        @Index(name = "idx_book_holds_book_status", columnList = "book_id, status, id"),
+        @Index(name = "idx_book_holds_user_book", columnList = "user_id, book_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookHold {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_holds_seq")
+    @SequenceGenerator(name = "book_holds_seq", sequenceName = "book_holds_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnoreProperties({"roles", "password", "hibernateLazyInitializer", "handler"})
+    private User user;
+
+    @ManyToOne
+    @JoinColumn(name = "book_id", nullable = false)
+    @JsonIgnoreProperties({"authors", "categories", "hibernateLazyInitializer", "handler"})
+    private Book book;
+
+    // Bản copy được giữ khi lượt chờ chuyển sang READY
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "reserved_copy_id")
+    @JsonIgnoreProperties({"book", "hibernateLazyInitializer", "handler"})
+    private BookCopy reservedCopy;
+
+    @Enumerated(EnumType.STRING)
+    private HoldStatus status;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+        if (this.status == null) this.status = HoldStatus.WAITING;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
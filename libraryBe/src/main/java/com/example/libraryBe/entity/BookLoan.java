@@ -8,14 +8,19 @@ import java.time.LocalDateTime;
 import com.example.libraryBe.entity.User;
 
 @Entity
-@Table(name = "book_loans")
+@Table(name = "book_loans", indexes = {
+        @Index(name = "idx_book_loans_status_due", columnList = "status, due_date, id"),
+        @Index(name = "idx_book_loans_loan_date", columnList = "loan_date"),
+        @Index(name = "idx_book_loans_return_date", columnList = "return_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class BookLoan {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_loans_seq")
+    @SequenceGenerator(name = "book_loans_seq", sequenceName = "book_loans_seq", allocationSize = 50)
     private Long id;
 
     // Mượn cuốn cụ thể nào (Copy)
@@ -37,6 +42,14 @@ public class BookLoan {
     @Enumerated(EnumType.STRING)
     private LoanStatus status;
 
+    // Thời điểm đã gửi thông báo quá hạn (chỉ gửi 1 lần)
+    private LocalDateTime overdueNotifiedAt;
+
+    // Phiếu đã đóng lâu ngày được LoanArchiver chuyển sang "kho lưu trữ"; các màn hình mặc định chỉ đọc phiếu chưa lưu trữ
+    @Column(nullable = false, columnDefinition = "boolean not null default false")
+    @Builder.Default
+    private boolean archived = false;
+
     // Audit logs
     private LocalDateTime loanedAt;
     private LocalDateTime updatedAt;
@@ -2,6 +2,7 @@ package com.example.libraryBe.entity;
 
 import com.example.libraryBe.model.RequestStatus;
 import com.example.libraryBe.model.RequestType;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
@@ -14,15 +15,18 @@ import java.time.LocalDateTime;
 @Builder
 public class BookRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_requests_seq")
+    @SequenceGenerator(name = "book_requests_seq", sequenceName = "book_requests_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnoreProperties({"roles", "password", "hibernateLazyInitializer", "handler"})
     private User user;
 
     @ManyToOne
     @JoinColumn(name = "book_id")
+    @JsonIgnoreProperties({"authors", "categories", "hibernateLazyInitializer", "handler"})
     private Book book;
 
     @ManyToOne
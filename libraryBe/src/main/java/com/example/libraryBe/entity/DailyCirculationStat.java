@@ -0,0 +1,39 @@
+package com.example.libraryBe.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Bảng tổng hợp lưu thông theo ngày và thể loại, cộng dồn dần bởi CirculationStats.
+// categoryId = 0 là dòng tổng của cả thư viện (sách nhiều thể loại được đếm ở mỗi thể loại nhưng chỉ 1 lần ở dòng tổng)
+@Entity
+@Table(name = "daily_circulation_stats")
+@IdClass(DailyCirculationStat.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyCirculationStat {
+    public static final long ALL_CATEGORIES = 0L;
+
+    @Id
+    private LocalDate statDate;
+
+    @Id
+    private Long categoryId;
+
+    private long loans;
+    private long returns;
+    private long overdueReturns; // Trả sau hạn trả (tính theo ngày)
+    private long finesIssued;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate statDate;
+        private Long categoryId;
+    }
+}
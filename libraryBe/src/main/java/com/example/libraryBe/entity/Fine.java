@@ -1,22 +1,25 @@
 package com.example.libraryBe.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "fines")
+@Table(name = "fines", indexes = @Index(name = "idx_fines_created_at", columnList = "created_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Fine {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fines_seq")
+    @SequenceGenerator(name = "fines_seq", sequenceName = "fines_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnoreProperties({"roles", "password", "hibernateLazyInitializer", "handler"})
     private User user;
 
     @ManyToOne
@@ -26,6 +29,9 @@ public class Fine {
     private Double amount; // Số tiền phạt
     private String description; // Lý do phạt
 
+    // Số ngày quá hạn đã tính, chỉ có ở phí phạt quá hạn tự động (được cộng dồn tới khi trả sách)
+    private Integer overdueDays;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -34,4 +40,9 @@ public class Fine {
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
     }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
 }
\ No newline at end of file
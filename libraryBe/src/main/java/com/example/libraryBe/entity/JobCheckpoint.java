@@ -0,0 +1,31 @@
+package com.example.libraryBe.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// Vị trí đã xử lý tới của các job nền (keyset cursor), để job chạy lại tiếp từ chỗ dừng thay vì quét lại từ đầu
+@Entity
+@Table(name = "job_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobCheckpoint {
+    @Id
+    private String name;
+
+    // Cursor = (cursorTime, cursorId) của dòng cuối cùng đã xử lý
+    private LocalDateTime cursorTime;
+    private Long cursorId;
+
+    private LocalDateTime runStartedAt;
+    private LocalDateTime completedAt; // Null nếu lượt chạy hiện tại chưa xong
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
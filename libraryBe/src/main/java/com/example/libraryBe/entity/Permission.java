@@ -12,7 +12,8 @@ import lombok.*;
 @Builder
 public class Permission {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "permissions_seq")
+    @SequenceGenerator(name = "permissions_seq", sequenceName = "permissions_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
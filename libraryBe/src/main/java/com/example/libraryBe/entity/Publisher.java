@@ -12,7 +12,8 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class Publisher {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "publishers_seq")
+    @SequenceGenerator(name = "publishers_seq", sequenceName = "publishers_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
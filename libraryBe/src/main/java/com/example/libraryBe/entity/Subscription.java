@@ -1,26 +1,30 @@
 package com.example.libraryBe.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "subscriptions")
+@Table(name = "subscriptions", indexes = @Index(name = "idx_subscriptions_book", columnList = "book_id, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Subscription {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "subscriptions_seq")
+    @SequenceGenerator(name = "subscriptions_seq", sequenceName = "subscriptions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnoreProperties({"roles", "password", "hibernateLazyInitializer", "handler"})
     private User user;
 
     @ManyToOne
     @JoinColumn(name = "book_id", nullable = false)
+    @JsonIgnoreProperties({"authors", "categories", "hibernateLazyInitializer", "handler"})
     private Book book;
 
     private LocalDateTime createdAt;
@@ -0,0 +1,12 @@
+package com.example.libraryBe.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Phát ra khi 1 bản copy được trả về kho, dùng để báo cho người theo dõi sách (sau khi transaction commit)
+@Getter
+@RequiredArgsConstructor
+public class BookReturnedEvent {
+    private final Long bookId;
+    private final String title;
+}
@@ -0,0 +1,26 @@
+package com.example.libraryBe.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collection;
+import java.util.List;
+
+// Phát ra khi dữ liệu danh mục (sách, tác giả, thể loại, NXB) thay đổi để các index trong bộ nhớ cập nhật theo
+@Getter
+@RequiredArgsConstructor
+public class CatalogChangedEvent {
+
+    public enum Target { BOOK, AUTHOR, CATEGORY, PUBLISHER }
+
+    // COPIES_CHANGED: chỉ số bản copy AVAILABLE của sách thay đổi (mượn, trả, nhập thêm)
+    public enum Change { CREATED, UPDATED, DELETED, COPIES_CHANGED }
+
+    private final Target target;
+    private final Change change;
+    private final Collection<Long> ids;
+
+    public static CatalogChangedEvent of(Target target, Change change, Long id) {
+        return new CatalogChangedEvent(target, change, List.of(id));
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.libraryBe.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+
+// Phát ra khi có lượt mượn, trả, trả quá hạn hoặc phí phạt mới; CirculationStats cộng vào bảng tổng hợp sau khi commit.
+// bookIds có thể chứa null (phí phạt thủ công không gắn phiếu mượn): chỉ cộng vào dòng tổng
+@Getter
+@RequiredArgsConstructor
+public class CirculationEvent {
+
+    public enum Metric { LOAN, RETURN, OVERDUE_RETURN, FINE }
+
+    private final Metric metric;
+    private final LocalDate date;
+    private final Collection<Long> bookIds;
+
+    public static CirculationEvent of(Metric metric, LocalDate date, Long bookId) {
+        return new CirculationEvent(metric, date, Collections.singletonList(bookId));
+    }
+}
@@ -3,5 +3,6 @@ package com.example.libraryBe.model;
 public enum BookCopyStatus {
     AVAILABLE,
     BORROWED,
+    RESERVED, // Đang giữ cho người đứng đầu hàng chờ (BookHold READY)
     LOST
 }
@@ -0,0 +1,8 @@
+package com.example.libraryBe.model;
+
+public enum HoldStatus {
+    WAITING,   // Đang xếp hàng chờ
+    READY,     // Đã được giữ 1 bản copy, chờ thủ thư duyệt yêu cầu mượn
+    FULFILLED, // Đã mượn
+    CANCELLED
+}
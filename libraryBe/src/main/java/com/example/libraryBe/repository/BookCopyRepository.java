@@ -2,13 +2,30 @@ package com.example.libraryBe.repository;
 import com.example.libraryBe.entity.BookCopy;
 import com.example.libraryBe.model.BookCopyStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookCopyRepository extends JpaRepository<BookCopy, Long> {
-    Optional<BookCopy> findFirstByBookIdAndStatus(Long bookId, BookCopyStatus status);
+    // Giữ 1 bản AVAILABLE của sách (khóa dòng đến hết transaction). Bản đang bị transaction khác giữ thì bỏ qua,
+    // nhờ vậy các lượt duyệt đồng thời mỗi lượt lấy 1 bản khác nhau mà không phải chờ nhau
+    @Query(value = "SELECT * FROM book_copies WHERE book_id = :bookId AND status = 'AVAILABLE' " +
+            "ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<BookCopy> claimAvailableCopy(Long bookId);
+
+    // Như trên nhưng giữ tối đa count bản một lần (duyệt hàng loạt)
+    @Query(value = "SELECT * FROM book_copies WHERE book_id = :bookId AND status = 'AVAILABLE' " +
+            "ORDER BY id LIMIT :count FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<BookCopy> claimAvailableCopies(Long bookId, int count);
+
+    @Modifying
+    @Query("UPDATE BookCopy c SET c.status = :status WHERE c.id IN :ids")
+    int updateStatusByIds(Collection<Long> ids, BookCopyStatus status);
     long countByBookIdAndStatus(Long bookId, BookCopyStatus status);
     void deleteByBookId(Long bookId);
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.example.libraryBe.repository;
+
+import com.example.libraryBe.entity.BookHold;
+import com.example.libraryBe.entity.User;
+import com.example.libraryBe.model.HoldStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookHoldRepository extends JpaRepository<BookHold, Long> {
+    @EntityGraph(attributePaths = {"user", "book.publisher"})
+    List<BookHold> findByUserOrderByCreatedAtDesc(User user);
+
+    boolean existsByUserIdAndBookIdAndStatusIn(Long userId, Long bookId, Collection<HoldStatus> statuses);
+
+    List<BookHold> findByUserIdAndBookIdAndStatusIn(Long userId, Long bookId, Collection<HoldStatus> statuses);
+
+    Optional<BookHold> findFirstByUserIdAndBookIdAndStatus(Long userId, Long bookId, HoldStatus status);
+
+    List<BookHold> findByStatusAndBookIdIn(HoldStatus status, Collection<Long> bookIds);
+
+    // Toàn bộ hàng chờ để dựng HoldQueue: mỗi dòng là [bookId, holdId, userId], theo thứ tự đến
+    @Query("SELECT h.book.id, h.id, h.user.id FROM BookHold h WHERE h.status = 'WAITING' ORDER BY h.id")
+    List<Object[]> findWaitingQueue();
+
+    // Khóa lượt chờ nếu vẫn còn WAITING; lượt đang bị transaction khác giữ thì bỏ qua (không chờ)
+    @Query(value = "SELECT * FROM book_holds WHERE id = :id AND status = 'WAITING' FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<BookHold> lockWaiting(Long id);
+
+    // Dự phòng khi các lượt đầu HoldQueue trong bộ nhớ không khóa được: khóa lượt WAITING sớm nhất của sách ngay trên DB
+    @Query(value = "SELECT * FROM book_holds WHERE book_id = :bookId AND status = 'WAITING' "
+            + "ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<BookHold> lockNextWaiting(Long bookId);
+}
@@ -1,18 +1,81 @@
 package com.example.libraryBe.repository;
 
+import com.example.libraryBe.dto.LoanResponse;
 import com.example.libraryBe.entity.BookLoan;
 import com.example.libraryBe.entity.User;
 import com.example.libraryBe.model.LoanStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookLoanRepository extends JpaRepository<BookLoan, Long> {
+    @EntityGraph(attributePaths = {"user", "bookCopy.book.publisher"})
     List<BookLoan> findByUserOrderByLoanDateDesc(User user);
+    @EntityGraph(attributePaths = {"user", "bookCopy.book.publisher"})
     List<BookLoan> findByUserAndStatusOrderByLoanDateDesc(User user, LoanStatus status);
-    // Admin: Lấy tất cả sắp xếp ngày giảm dần
-    List<BookLoan> findAllByOrderByLoanDateDesc();
+    // Chỉ phiếu chưa lưu trữ (partial index idx_book_loans_hot_user)
+    @EntityGraph(attributePaths = {"user", "bookCopy.book.publisher"})
+    List<BookLoan> findByUserAndArchivedFalseOrderByLoanDateDesc(User user);
+    @EntityGraph(attributePaths = {"user", "bookCopy.book.publisher"})
+    List<BookLoan> findByUserAndStatusAndArchivedFalseOrderByLoanDateDesc(User user, LoanStatus status);
+    // Admin: danh sách phiếu mượn có lọc, phân trang, chỉ lấy các cột cần hiển thị (ngày mượn mới nhất trước)
+    @Query(value = "SELECT new com.example.libraryBe.dto.LoanResponse(" +
+            "l.id, b.id, b.title, c.id, u.id, u.username, l.loanDate, l.dueDate, l.returnDate, l.status) " +
+            "FROM BookLoan l JOIN l.bookCopy c JOIN c.book b JOIN l.user u " +
+            "WHERE (:status IS NULL OR l.status = :status) " +
+            "AND (:userId IS NULL OR u.id = :userId) " +
+            "AND (:bookId IS NULL OR b.id = :bookId) " +
+            "AND (CAST(:from AS LocalDateTime) IS NULL OR l.loanDate >= :from) " +
+            "AND (CAST(:to AS LocalDateTime) IS NULL OR l.loanDate < :to) " +
+            "AND (:history = true OR l.archived = false) " +
+            "ORDER BY l.loanDate DESC, l.id DESC",
+            countQuery = "SELECT COUNT(l) " +
+                    "FROM BookLoan l JOIN l.bookCopy c JOIN c.book b JOIN l.user u " +
+                    "WHERE (:status IS NULL OR l.status = :status) " +
+                    "AND (:userId IS NULL OR u.id = :userId) " +
+                    "AND (:bookId IS NULL OR b.id = :bookId) " +
+                    "AND (CAST(:from AS LocalDateTime) IS NULL OR l.loanDate >= :from) " +
+                    "AND (CAST(:to AS LocalDateTime) IS NULL OR l.loanDate < :to) " +
+                    "AND (:history = true OR l.archived = false)")
+    Page<LoanResponse> findResponsesByFilters(LoanStatus status, Long userId, Long bookId,
+                                              LocalDateTime from, LocalDateTime to, boolean history,
+                                              Pageable pageable);
     long countByStatus(LoanStatus status);
+
+    // Khóa tối đa limit phiếu đang mượn đã quá hạn theo keyset (dueDate, id), dùng index (status, due_date, id).
+    // Phiếu đang bị transaction khác giữ (đang trả sách) thì bỏ qua, khóa giữ đến hết transaction của chunk
+    @Query(value = "SELECT id FROM book_loans WHERE status = 'BORROWED' AND due_date < :before " +
+            "AND (due_date, id) > (:afterDueDate, :afterId) " +
+            "ORDER BY due_date, id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockDueBeforeAfter(LocalDateTime before, LocalDateTime afterDueDate, Long afterId, int limit);
+
+    @EntityGraph(attributePaths = {"user", "bookCopy.book"})
+    @Query("SELECT l FROM BookLoan l WHERE l.id IN :ids ORDER BY l.dueDate, l.id")
+    List<BookLoan> findWithDetailsByIdIn(Collection<Long> ids);
+
+    // Khóa phiếu mượn đến hết transaction (trả sách), chờ nếu job quá hạn đang xử lý phiếu này
+    @Query(value = "SELECT id FROM book_loans WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(Long id);
+
+    // Số lượt mượn theo sách, mỗi dòng là [bookId, count]
+    @Query("SELECT c.book.id, COUNT(l) FROM BookLoan l JOIN l.bookCopy c GROUP BY c.book.id")
+    List<Object[]> countLoansGroupByBook();
+
+    @Query("SELECT c.book.id, COUNT(l) FROM BookLoan l JOIN l.bookCopy c " +
+            "WHERE c.book.id IN :bookIds GROUP BY c.book.id")
+    List<Object[]> countLoansByBookIds(Collection<Long> bookIds);
+
+    // Số lượt mượn chính xác từ mốc since của vài sách (top trending trên dashboard), mỗi dòng là [bookId, count]
+    @Query("SELECT c.book.id, COUNT(l) FROM BookLoan l JOIN l.bookCopy c " +
+            "WHERE c.book.id IN :bookIds AND l.loanDate >= :since GROUP BY c.book.id")
+    List<Object[]> countLoansByBookIdsSince(Collection<Long> bookIds, LocalDateTime since);
 }
\ No newline at end of file
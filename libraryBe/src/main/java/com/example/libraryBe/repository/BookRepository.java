@@ -3,19 +3,118 @@ package com.example.libraryBe.repository;
 import com.example.libraryBe.entity.Book;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
 
-    // Tìm theo Keyword + Category + Author
-    @Query("SELECT DISTINCT b FROM Book b " +
-            "LEFT JOIN b.authors a " +
-            "LEFT JOIN b.categories c " +
-            "WHERE (:keyword IS NULL OR :keyword = '' OR LOWER(b.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(a.name) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
-            "AND (:authorId IS NULL OR a.id = :authorId) " +
-            "AND (:categoryId IS NULL OR c.id = :categoryId)")
-    Page<Book> searchBooks(String keyword, Long authorId, Long categoryId, Pageable pageable);
-}
\ No newline at end of file
+    // Lọc theo Category + Author (keyword đi qua BookSearchEngine). Dùng EXISTS thay cho JOIN + DISTINCT để COUNT rẻ hơn.
+    // Chỉ lấy id, dữ liệu sách của trang load bằng findByIdIn (fetch join collection không phân trang được trên DB)
+    @Query(value = "SELECT b.id FROM Book b " +
+            "WHERE (:authorId IS NULL OR EXISTS (SELECT a FROM b.authors a WHERE a.id = :authorId)) " +
+            "AND (:categoryId IS NULL OR EXISTS (SELECT c FROM b.categories c WHERE c.id = :categoryId))",
+            countQuery = "SELECT COUNT(b) FROM Book b " +
+                    "WHERE (:authorId IS NULL OR EXISTS (SELECT a FROM b.authors a WHERE a.id = :authorId)) " +
+                    "AND (:categoryId IS NULL OR EXISTS (SELECT c FROM b.categories c WHERE c.id = :categoryId))")
+    Page<Long> findIdsByFilters(Long authorId, Long categoryId, Pageable pageable);
+
+    // Cộng dồn thay đổi số bản copy của sách. Gọi ở cuối transaction đổi trạng thái copy
+    // để khóa dòng books giữ càng ngắn càng tốt
+    @Modifying
+    @Query(value = "UPDATE books SET available_count = available_count + :available, " +
+            "total_count = total_count + :total WHERE id = :bookId", nativeQuery = true)
+    int adjustCopyCounts(Long bookId, int available, int total);
+
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids AND b.availableCount > 0")
+    List<Long> findIdsWithAvailableCopies(Collection<Long> ids);
+
+    // Keyset pagination: trang tiếp theo sau afterId (null = trang đầu), không có COUNT
+    @Query("SELECT b.id FROM Book b " +
+            "WHERE (:afterId IS NULL OR b.id < :afterId) " +
+            "AND (:authorId IS NULL OR EXISTS (SELECT a FROM b.authors a WHERE a.id = :authorId)) " +
+            "AND (:categoryId IS NULL OR EXISTS (SELECT c FROM b.categories c WHERE c.id = :categoryId)) " +
+            "ORDER BY b.id DESC")
+    List<Long> findIdsPageAfter(Long afterId, Long authorId, Long categoryId, Pageable pageable);
+
+    // Load sách kèm tác giả, thể loại, NXB trong 1 query
+    @EntityGraph(attributePaths = {"authors", "categories", "publisher"})
+    List<Book> findByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = {"authors", "categories", "publisher"})
+    Optional<Book> findWithDetailsById(Long id);
+
+    // Duyệt id theo từng lô (keyset) để build index
+    @Query("SELECT b.id FROM Book b WHERE b.id > :afterId ORDER BY b.id")
+    List<Long> findIdsAfter(Long afterId, Pageable pageable);
+
+    @Query("SELECT b.id FROM Book b JOIN b.authors a WHERE a.id = :authorId")
+    List<Long> findIdsByAuthorId(Long authorId);
+
+    @Query("SELECT b.id FROM Book b JOIN b.categories c WHERE c.id = :categoryId")
+    List<Long> findIdsByCategoryId(Long categoryId);
+
+    // Các cặp [bookId, categoryId] của những sách trong ids
+    @Query("SELECT b.id, c.id FROM Book b JOIN b.categories c WHERE b.id IN :ids")
+    List<Object[]> findCategoryIdsByBookIds(Collection<Long> ids);
+
+    // --- Search backend "postgres" (xem db/postgres-search.sql) ---
+
+    // Full-text (tiền tố từ) + trigram để chịu lỗi gõ sai, mỗi dòng là [bookId, score].
+    // Phân trang theo offset, hoặc keyset khi có afterId (vị trí (score, id) của dòng cuối trang trước)
+    @Query(value = "SELECT r.id, r.score FROM (" +
+            "SELECT b.id, ts_rank(b.search_vector, to_tsquery('simple', :tsQuery)) " +
+            "+ word_similarity(:keyword, b.search_text) AS score " +
+            "FROM books b " +
+            "WHERE (b.search_vector @@ to_tsquery('simple', :tsQuery) OR :keyword <% b.search_text) " +
+            "AND (CAST(:authorId AS BIGINT) IS NULL OR EXISTS " +
+            "(SELECT 1 FROM book_authors ba WHERE ba.book_id = b.id AND ba.author_id = :authorId)) " +
+            "AND (CAST(:categoryId AS BIGINT) IS NULL OR EXISTS " +
+            "(SELECT 1 FROM book_categories bc WHERE bc.book_id = b.id AND bc.category_id = :categoryId))" +
+            ") r " +
+            "WHERE (CAST(:afterId AS BIGINT) IS NULL " +
+            "OR (r.score, r.id) < (CAST(:afterScore AS DOUBLE PRECISION), CAST(:afterId AS BIGINT))) " +
+            "ORDER BY r.score DESC, r.id DESC " +
+            "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Object[]> fullTextSearch(String tsQuery, String keyword, Long authorId, Long categoryId,
+                                  Double afterScore, Long afterId, int offset, int limit);
+
+    @Query(value = "SELECT COUNT(*) FROM books b " +
+            "WHERE (b.search_vector @@ to_tsquery('simple', :tsQuery) OR :keyword <% b.search_text) " +
+            "AND (CAST(:authorId AS BIGINT) IS NULL OR EXISTS " +
+            "(SELECT 1 FROM book_authors ba WHERE ba.book_id = b.id AND ba.author_id = :authorId)) " +
+            "AND (CAST(:categoryId AS BIGINT) IS NULL OR EXISTS " +
+            "(SELECT 1 FROM book_categories bc WHERE bc.book_id = b.id AND bc.category_id = :categoryId))",
+            nativeQuery = true)
+    long fullTextCount(String tsQuery, String keyword, Long authorId, Long categoryId);
+
+    // Tính lại search_text / search_vector (tiêu đề > tác giả > mô tả) cho các sách truyền vào
+    @Modifying
+    @Query(value = "UPDATE books b SET " +
+            "search_text = s.title || ' ' || s.authors, " +
+            "search_vector = setweight(to_tsvector('simple', s.title), 'A') " +
+            "|| setweight(to_tsvector('simple', s.authors), 'B') " +
+            "|| setweight(to_tsvector('simple', s.description), 'C') " +
+            "FROM (SELECT bk.id, " +
+            "unaccent(lower(bk.title)) AS title, " +
+            "unaccent(lower(COALESCE(string_agg(a.name, ' '), ''))) AS authors, " +
+            "unaccent(lower(COALESCE(bk.description, ''))) AS description " +
+            "FROM books bk " +
+            "LEFT JOIN book_authors ba ON ba.book_id = bk.id " +
+            "LEFT JOIN authors a ON a.id = ba.author_id " +
+            "WHERE bk.id IN (:ids) " +
+            "GROUP BY bk.id) s " +
+            "WHERE b.id = s.id", nativeQuery = true)
+    int refreshSearchColumns(Collection<Long> ids);
+
+    @Query(value = "SELECT id FROM books WHERE search_vector IS NULL AND id > :afterId ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findIdsMissingSearchVector(long afterId, int limit);
+}
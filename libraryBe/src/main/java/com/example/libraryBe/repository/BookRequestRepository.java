@@ -3,15 +3,34 @@ package com.example.libraryBe.repository;
 import com.example.libraryBe.entity.BookRequest;
 import com.example.libraryBe.entity.User;
 import com.example.libraryBe.model.RequestStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface BookRequestRepository extends JpaRepository<BookRequest, Long> {
+    @EntityGraph(attributePaths = {"user", "book.publisher", "bookLoan.user", "bookLoan.bookCopy.book.publisher"})
     List<BookRequest> findByUserOrderByCreatedAtDesc(User user);
+
+    // Admin: toàn bộ yêu cầu kèm dữ liệu hiển thị trong 1 query
+    @EntityGraph(attributePaths = {"user", "book.publisher", "bookLoan.user", "bookLoan.bookCopy.book.publisher"})
+    @Query("SELECT r FROM BookRequest r")
+    List<BookRequest> findAllWithDetails(Sort sort);
     // Kiểm tra xem user này có đang yêu cầu cuốn sách này không (tránh spam nút mượn)
     boolean existsByUserIdAndBookIdAndStatus(Long userId, Long bookId, RequestStatus status);
+    List<BookRequest> findByUserIdAndBookIdAndStatus(Long userId, Long bookId, RequestStatus status);
     long countByStatus(RequestStatus status);
+
+    @EntityGraph(attributePaths = {"user", "book.publisher"})
+    List<BookRequest> findWithDetailsByIdIn(Collection<Long> ids);
+
+    // Khóa các yêu cầu còn PENDING trước khi xử lý hàng loạt; yêu cầu đang bị admin khác xử lý thì bỏ qua
+    @Query(value = "SELECT id FROM book_requests WHERE id IN :ids AND status = 'PENDING' FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockPendingIds(Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.example.libraryBe.repository;
+
+import com.example.libraryBe.entity.DailyCirculationStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyCirculationStatRepository extends JpaRepository<DailyCirculationStat, DailyCirculationStat.Key> {
+
+    // Gộp các ngày theo mốc (bucket là 'day' | 'week' | 'month' của date_trunc).
+    // Mỗi dòng là [đầu mốc, loans, returns, overdueReturns, finesIssued]
+    @Query(value = "SELECT date_trunc(:bucket, CAST(stat_date AS timestamp)) AS bucket_start, SUM(loans), SUM(returns), " +
+            "SUM(overdue_returns), SUM(fines_issued) FROM daily_circulation_stats " +
+            "WHERE category_id = :categoryId AND stat_date >= :from " +
+            "GROUP BY bucket_start ORDER BY bucket_start", nativeQuery = true)
+    List<Object[]> sumByBucket(String bucket, long categoryId, LocalDate from);
+}
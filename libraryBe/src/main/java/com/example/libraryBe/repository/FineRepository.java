@@ -2,13 +2,20 @@ package com.example.libraryBe.repository;
 
 import com.example.libraryBe.entity.Fine;
 import com.example.libraryBe.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface FineRepository extends JpaRepository<Fine, Long> {
+    @EntityGraph(attributePaths = {"user", "bookLoan.user", "bookLoan.bookCopy.book.publisher"})
     List<Fine> findByUserOrderByCreatedAtDesc(User user);
+    @EntityGraph(attributePaths = {"user", "bookLoan.user", "bookLoan.bookCopy.book.publisher"})
     List<Fine> findAllByOrderByCreatedAtDesc();
+
+    // Phí phạt quá hạn tự động của các phiếu mượn
+    List<Fine> findByBookLoanIdInAndOverdueDaysIsNotNull(Collection<Long> loanIds);
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.example.libraryBe.repository;
 
 import com.example.libraryBe.entity.Review;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -8,6 +9,7 @@ import java.util.List;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
+    @EntityGraph(attributePaths = {"user", "book.publisher"})
     List<Review> findByBookIdOrderByCreatedAtDesc(Long bookId);
     Review findByUserIdAndBookId(Long userId, Long bookId);
 }
\ No newline at end of file
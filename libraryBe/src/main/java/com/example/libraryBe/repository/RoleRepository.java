@@ -2,6 +2,7 @@ package com.example.libraryBe.repository;
 
 import com.example.libraryBe.entity.Role;
 import com.example.libraryBe.model.RoleEnum;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,5 +10,6 @@ import java.util.Optional;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
+    @EntityGraph(attributePaths = "permissions")
     Optional<Role> findByName(RoleEnum name);
 }
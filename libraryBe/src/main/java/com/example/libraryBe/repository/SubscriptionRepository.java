@@ -2,14 +2,21 @@ package com.example.libraryBe.repository;
 
 import com.example.libraryBe.entity.Subscription;
 import com.example.libraryBe.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
+    @EntityGraph(attributePaths = {"user", "book.publisher"})
     List<Subscription> findByUserOrderByCreatedAtDesc(User user);
     boolean existsByUserIdAndBookId(Long userId, Long bookId);
-    List<Subscription> findByBookId(Long bookId);
+
+    // Trang người theo dõi của sách theo keyset: mỗi dòng là [subscriptionId, userId]
+    @Query("SELECT s.id, s.user.id FROM Subscription s WHERE s.book.id = :bookId AND s.id > :afterId ORDER BY s.id")
+    List<Object[]> findSubscribersAfter(Long bookId, Long afterId, Pageable pageable);
 }
\ No newline at end of file
@@ -2,15 +2,29 @@ package com.example.libraryBe.repository;
 
 import com.example.libraryBe.entity.User;
 import com.example.libraryBe.model.RequestStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
+    // Xác thực: lấy user kèm role và permission trong 1 query
+    @EntityGraph(attributePaths = {"roles", "roles.permissions"})
+    Optional<User> findWithAuthoritiesByUsername(String username);
+
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findWithRolesByUsername(String username);
+
+    @EntityGraph(attributePaths = "roles")
+    @Query("SELECT u FROM User u")
+    List<User> findAllWithRoles();
+
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
     long countByStatus(String status);
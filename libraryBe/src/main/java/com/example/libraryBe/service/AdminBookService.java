@@ -2,13 +2,17 @@ package com.example.libraryBe.service;
 
 import com.example.libraryBe.dto.BookRequest;
 import com.example.libraryBe.entity.*;
+import com.example.libraryBe.event.CatalogChangedEvent;
 import com.example.libraryBe.model.BookCopyStatus;
 import com.example.libraryBe.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 @Service
@@ -20,6 +24,9 @@ public class AdminBookService {
     private final CategoryRepository categoryRepository;
     private final PublisherRepository publisherRepository;
     private final BookCopyRepository bookCopyRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NameDictionary nameDictionary;
+    private final HoldService holdService;
 
     @Transactional
     public Book createBook(BookRequest request) {
@@ -43,6 +50,8 @@ public class AdminBookService {
         int copyCount = request.getInitialCopies() != null ? request.getInitialCopies() : 1;
         createCopies(savedBook, copyCount);
 
+        eventPublisher.publishEvent(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.BOOK, CatalogChangedEvent.Change.CREATED, savedBook.getId()));
         return savedBook;
     }
 
@@ -65,7 +74,10 @@ public class AdminBookService {
             book.setCategories(getOrCreateCategories(request.getCategoryNames()));
         }
 
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        eventPublisher.publishEvent(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.BOOK, CatalogChangedEvent.Change.UPDATED, id));
+        return savedBook;
     }
 
     @Transactional
@@ -76,6 +88,8 @@ public class AdminBookService {
         // Xóa copy trước xóa sách sau
         bookCopyRepository.deleteByBookId(id);
         bookRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.BOOK, CatalogChangedEvent.Change.DELETED, id));
     }
 
     @Transactional
@@ -83,60 +97,40 @@ public class AdminBookService {
         Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new RuntimeException("Book not found"));
 
-        for (int i = 0; i < amount; i++) {
-            BookCopy copy = BookCopy.builder()
-                    .book(book)
-                    .status(BookCopyStatus.AVAILABLE)
-                    .condition("New") // Mặc định mới nhập là New
-                    .build();
-            bookCopyRepository.save(copy);
+        // Bản mới nhập được giữ cho hàng chờ trước (nếu có), phần còn lại vào kho
+        for (BookCopy copy : createCopies(book, amount)) {
+            if (!holdService.reserveForNext(copy)) break;
         }
+        eventPublisher.publishEvent(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.BOOK, CatalogChangedEvent.Change.COPIES_CHANGED, bookId));
     }
-    // Helper
+    // Helper: tên -> id qua NameDictionary, sau đó load entity bằng 1 query
     private Publisher getOrCreatePublisher(String name) {
-        if (name == null || name.isEmpty()) return null;
-        return publisherRepository.findAll().stream()
-                .filter(p -> p.getName().equalsIgnoreCase(name.trim()))
-                .findFirst()
-                .orElseGet(() -> publisherRepository.save(new Publisher(null, name.trim())));
+        if (NameDictionary.clean(name) == null) return null;
+        return publisherRepository.findById(nameDictionary.resolve(NameDictionary.Kind.PUBLISHER, name))
+                .orElseThrow(() -> new RuntimeException("Publisher not found"));
     }
 
-    private Set<Author> getOrCreateAuthors(java.util.List<String> names) {
-        Set<Author> result = new HashSet<>();
-        if (names == null) return result;
-        for (String name : names) {
-            if (name.trim().isEmpty()) continue;
-            Author author = authorRepository.findAll().stream()
-                    .filter(a -> a.getName().equalsIgnoreCase(name.trim()))
-                    .findFirst()
-                    .orElseGet(() -> authorRepository.save(new Author(null, name.trim())));
-            result.add(author);
-        }
-        return result;
+    private Set<Author> getOrCreateAuthors(List<String> names) {
+        return new HashSet<>(authorRepository.findAllById(nameDictionary.resolveAll(NameDictionary.Kind.AUTHOR, names)));
     }
 
-    private Set<Category> getOrCreateCategories(java.util.List<String> names) {
-        Set<Category> result = new HashSet<>();
-        if (names == null) return result;
-        for (String name : names) {
-            if (name.trim().isEmpty()) continue;
-            Category category = categoryRepository.findAll().stream()
-                    .filter(c -> c.getName().equalsIgnoreCase(name.trim()))
-                    .findFirst()
-                    .orElseGet(() -> categoryRepository.save(new Category(null, name.trim())));
-            result.add(category);
-        }
-        return result;
+    private Set<Category> getOrCreateCategories(List<String> names) {
+        return new HashSet<>(categoryRepository.findAllById(nameDictionary.resolveAll(NameDictionary.Kind.CATEGORY, names)));
     }
 
-    private void createCopies(Book book, int count) {
+    // saveAll + sequence id: Hibernate gom các INSERT thành JDBC batch (hibernate.jdbc.batch_size)
+    private List<BookCopy> createCopies(Book book, int count) {
+        List<BookCopy> copies = new ArrayList<>(count);
         for (int i = 0; i < count; i++) {
-            BookCopy copy = BookCopy.builder()
+            copies.add(BookCopy.builder()
                     .book(book)
                     .status(BookCopyStatus.AVAILABLE)
-                    .condition("New")
-                    .build();
-            bookCopyRepository.save(copy);
+                    .condition("New") // Mặc định mới nhập là New
+                    .build());
         }
+        List<BookCopy> saved = bookCopyRepository.saveAll(copies);
+        bookRepository.adjustCopyCounts(book.getId(), count, count);
+        return saved;
     }
 }
\ No newline at end of file
@@ -2,15 +2,19 @@ package com.example.libraryBe.service;
 
 import com.example.libraryBe.dto.DashboardResponse;
 import com.example.libraryBe.entity.Book;
-import com.example.libraryBe.entity.BookLoan;
+import com.example.libraryBe.entity.DailyCirculationStat;
 import com.example.libraryBe.model.LoanStatus;
 import com.example.libraryBe.model.RequestStatus;
 import com.example.libraryBe.repository.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -18,6 +22,41 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AdminDashboardService {
 
+    // Khoảng thời gian (ngày) được phép của biểu đồ mượn sách
+    public static final Set<Integer> CHART_RANGES = Set.of(7, 30, 90, 365, 1825);
+    public static final int DEFAULT_CHART_RANGE = 7;
+
+    public enum ChartBucket {
+        DAY("day", "dd/MM"),
+        WEEK("week", "dd/MM"), // Nhãn là ngày thứ Hai đầu tuần
+        MONTH("month", "MM/yyyy");
+
+        private final String sqlUnit;
+        private final DateTimeFormatter formatter;
+
+        ChartBucket(String sqlUnit, String pattern) {
+            this.sqlUnit = sqlUnit;
+            this.formatter = DateTimeFormatter.ofPattern(pattern);
+        }
+
+        // Đầu mốc chứa ngày date, khớp với date_trunc của PostgreSQL
+        LocalDate truncate(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> date.withDayOfMonth(1);
+            };
+        }
+
+        LocalDate next(LocalDate start) {
+            return switch (this) {
+                case DAY -> start.plusDays(1);
+                case WEEK -> start.plusWeeks(1);
+                case MONTH -> start.plusMonths(1);
+            };
+        }
+    }
+
     private final BookRepository bookRepository;
     private final CategoryRepository categoryRepository;
     private final AuthorRepository authorRepository;
@@ -25,8 +64,10 @@ public class AdminDashboardService {
     private final UserRepository userRepository;
     private final BookLoanRepository loanRepository;
     private final BookRequestRepository requestRepository;
+    private final DailyCirculationStatRepository statRepository;
+    private final TrendingBooks trendingBooks;
 
-    public DashboardResponse getDashboardData() {
+    public DashboardResponse getDashboardData(int days, ChartBucket bucket) {
         // Lấy các chỉ số Count
         long totalBooks = bookRepository.count();
         long totalCategories = categoryRepository.count();
@@ -36,8 +77,8 @@ public class AdminDashboardService {
         long activeLoans = loanRepository.countByStatus(LoanStatus.BORROWED);
         long pendingRequests = requestRepository.countByStatus(RequestStatus.PENDING);
 
-        // Tính biểu đồ mượn sách 7 ngày qua
-        List<DashboardResponse.ChartData> chartData = getLoanChartData();
+        // Biểu đồ mượn sách trong days ngày qua
+        List<DashboardResponse.ChartData> chartData = getLoanChartData(days, bucket, null);
 
         // Tính sách Trending Top 5 sách được mượn nhiều nhất
         List<DashboardResponse.TrendingBook> trendingBooks = getTrendingBooks();
@@ -52,54 +93,64 @@ public class AdminDashboardService {
                 .pendingRequests(pendingRequests)
                 .loanChart(chartData)
                 .trendingBooks(trendingBooks)
+                .generatedAt(LocalDateTime.now())
                 .build();
     }
 
-    // Helper tính biểu đồ
-    private List<DashboardResponse.ChartData> getLoanChartData() {
-        List<DashboardResponse.ChartData> data = new ArrayList<>();
+    // Biểu đồ lưu thông đọc từ bảng tổng hợp theo ngày (daily_circulation_stats), không quét book_loans:
+    // 5 năm chỉ là vài nghìn dòng. categoryId null = toàn thư viện. Mốc không có phát sinh thì điền 0
+    public List<DashboardResponse.ChartData> getLoanChartData(int days, ChartBucket bucket, Long categoryId) {
+        if (!CHART_RANGES.contains(days)) {
+            throw new RuntimeException("Khoảng thời gian không hợp lệ, chỉ hỗ trợ " + new TreeSet<>(CHART_RANGES) + " ngày!");
+        }
         LocalDate today = LocalDate.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM");
+        LocalDate first = bucket.truncate(today.minusDays(days - 1));
 
-        // Lấy tất cả loan (tối ưu bằng query sau)
-        List<BookLoan> allLoans = loanRepository.findAll();
-
-        // Duyệt ngược 7 ngày
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            long count = allLoans.stream()
-                    .filter(l -> l.getLoanDate().toLocalDate().isEqual(date))
-                    .count();
+        Map<LocalDate, Object[]> sums = new HashMap<>();
+        for (Object[] row : statRepository.sumByBucket(bucket.sqlUnit,
+                categoryId != null ? categoryId : DailyCirculationStat.ALL_CATEGORIES, first)) {
+            sums.put(toLocalDate(row[0]), row);
+        }
 
+        List<DashboardResponse.ChartData> data = new ArrayList<>();
+        for (LocalDate start = first; !start.isAfter(today); start = bucket.next(start)) {
+            Object[] row = sums.get(start);
             data.add(DashboardResponse.ChartData.builder()
-                    .date(date.format(formatter))
-                    .value(count)
+                    .date(start.format(bucket.formatter))
+                    .value(row != null ? ((Number) row[1]).longValue() : 0)
+                    .returns(row != null ? ((Number) row[2]).longValue() : 0)
+                    .overdueReturns(row != null ? ((Number) row[3]).longValue() : 0)
+                    .finesIssued(row != null ? ((Number) row[4]).longValue() : 0)
                     .build());
         }
         return data;
     }
 
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof Timestamp timestamp) return timestamp.toLocalDateTime().toLocalDate();
+        return ((LocalDateTime) value).toLocalDate();
+    }
+
     // Helper: Tính Trending
     private List<DashboardResponse.TrendingBook> getTrendingBooks() {
-        // Map<BookId, Count>
-        Map<Long, Long> borrowCounts = loanRepository.findAll().stream()
-                .collect(Collectors.groupingBy(
-                        loan -> loan.getBookCopy().getBook().getId(),
-                        Collectors.counting()
-                ));
-
-        // Sort map theo value giảm dần, lấy top 5
-        return borrowCounts.entrySet().stream()
-                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
-                .limit(5)
-                .map(entry -> {
-                    Book book = bookRepository.findById(entry.getKey()).orElse(null);
-                    return DashboardResponse.TrendingBook.builder()
-                            .id(entry.getKey())
-                            .title(book != null ? book.getTitle() : "Unknown Book")
-                            .borrowCount(entry.getValue())
-                            .build();
-                })
+        // Top 5 sách mượn nhiều nhất 30 ngày qua: chọn sách từ TrendingBooks trong RAM (điểm giảm dần theo thời gian,
+        // có thể bị ước lượng cao), còn số lượt mượn hiển thị thì đếm chính xác cho đúng 5 sách đó
+        List<Long> ids = trendingBooks.top(TrendingBooks.Window.MONTH, 5).stream().map(TrendingBooks.Entry::bookId).toList();
+        if (ids.isEmpty()) return List.of();
+        Map<Long, String> titles = bookRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(Book::getId, Book::getTitle));
+        Map<Long, Long> counts = loanRepository.countLoansByBookIdsSince(ids, LocalDateTime.now().minusDays(30)).stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+
+        // Sắp theo số lượt thật, bằng nhau thì giữ thứ tự trending
+        return ids.stream()
+                .map(id -> DashboardResponse.TrendingBook.builder()
+                        .id(id)
+                        .title(titles.getOrDefault(id, "Unknown Book"))
+                        .borrowCount(counts.getOrDefault(id, 0L))
+                        .build())
+                .sorted(Comparator.comparingLong(DashboardResponse.TrendingBook::getBorrowCount).reversed())
                 .collect(Collectors.toList());
     }
 }
\ No newline at end of file
@@ -27,7 +27,7 @@ public class AdminUserService {
     private final PasswordEncoder passwordEncoder;
 
     public List<User> getAllUsers() {
-        return userRepository.findAll();
+        return userRepository.findAllWithRoles();
     }
 
     @Transactional
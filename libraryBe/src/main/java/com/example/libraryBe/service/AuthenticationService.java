@@ -73,7 +73,7 @@ public class AuthenticationService {
         );
 
         // Tìm user để tạo Token
-        var user = userRepository.findByUsername(request.getUsername())
+        var user = userRepository.findWithRolesByUsername(request.getUsername())
                 .orElseThrow();
 
         var jwtToken = jwtService.generateToken(user);
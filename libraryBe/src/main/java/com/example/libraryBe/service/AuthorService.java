@@ -2,9 +2,11 @@ package com.example.libraryBe.service;
 
 import com.example.libraryBe.dto.SimpleRequest;
 import com.example.libraryBe.entity.Author;
+import com.example.libraryBe.event.CatalogChangedEvent;
 import com.example.libraryBe.repository.AuthorRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -14,23 +16,44 @@ import java.util.List;
 public class AuthorService {
 
     private final AuthorRepository authorRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NameDictionary nameDictionary;
 
     public List<Author> getAllAuthors() {
         return authorRepository.findAll();
     }
     public Author createAuthor(SimpleRequest request) {
-        return authorRepository.save(new Author(null, request.getName()));
+        checkNameAvailable(null, request.getName());
+        Author saved = authorRepository.save(new Author(null, NameDictionary.clean(request.getName())));
+        eventPublisher.publishEvent(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.AUTHOR, CatalogChangedEvent.Change.CREATED, saved.getId()));
+        return saved;
     }
 
     public Author updateAuthor(Long id, SimpleRequest request) {
         Author author = authorRepository.findById(id).orElseThrow(() -> new RuntimeException("Not found"));
-        author.setName(request.getName());
-        return authorRepository.save(author);
+        checkNameAvailable(id, request.getName());
+        author.setName(NameDictionary.clean(request.getName()));
+        Author saved = authorRepository.save(author);
+        eventPublisher.publishEvent(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.AUTHOR, CatalogChangedEvent.Change.UPDATED, id));
+        return saved;
     }
 
     @Transactional
     public void deleteAuthor(Long id) {
         // Nếu dính FK với book thì DB sẽ báo lỗi
         authorRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.AUTHOR, CatalogChangedEvent.Change.DELETED, id));
     }
-}
\ No newline at end of file
+
+    private void checkNameAvailable(Long id, String name) {
+        if (NameDictionary.clean(name) == null) throw new RuntimeException("Tên không được để trống!");
+        nameDictionary.find(NameDictionary.Kind.AUTHOR, name)
+                .filter(existingId -> !existingId.equals(id))
+                .ifPresent(existingId -> {
+                    throw new RuntimeException("Tác giả '" + name.trim() + "' đã tồn tại!");
+                });
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.libraryBe.service;
+
+import com.example.libraryBe.config.CatalogProperties;
+import com.example.libraryBe.dto.BookResponse;
+import com.example.libraryBe.dto.CacheStatsResponse;
+import com.example.libraryBe.dto.PageResponse;
+import com.example.libraryBe.event.CatalogChangedEvent;
+import com.example.libraryBe.util.TextNormalizer;
+import com.example.libraryBe.util.TtlCache;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Cache read-through cho API public: chi tiết sách theo id và các trang danh sách/tìm kiếm.
+// Xóa cache khi dữ liệu thay đổi (CatalogChangedEvent), TTL chỉ là lưới an toàn.
+@Component
+public class BookCatalogCache {
+
+    public record PageKey(String keyword, Long authorId, Long categoryId, int page, int size, String after) {
+    }
+
+    private final TtlCache<Long, BookResponse> books;
+    private final TtlCache<PageKey, PageResponse<BookResponse>> pages;
+    // Tăng mỗi lần invalidate, kết quả load xong mà generation đã đổi thì không đưa vào cache (tránh lưu dữ liệu cũ).
+    // So generation + put và tăng generation + xóa cùng giữ lock để invalidate không chen vào giữa lúc kiểm tra và put
+    private final AtomicLong generation = new AtomicLong();
+    private final Object invalidationLock = new Object();
+
+    public BookCatalogCache(CatalogProperties properties) {
+        CatalogProperties.Cache config = properties.getCache();
+        this.books = new TtlCache<>(config.getMaxBooks(), config.getTtl());
+        this.pages = new TtlCache<>(config.getMaxPages(), config.getTtl());
+    }
+
+    // "  Harry   POTTER " và "harry potter" dùng chung 1 entry
+    public static PageKey pageKey(String keyword, Long authorId, Long categoryId, int page, int size, String after) {
+        return new PageKey(String.join(" ", TextNormalizer.tokenize(keyword)), authorId, categoryId, page, size, after);
+    }
+
+    public BookResponse getBook(Long id, Supplier<BookResponse> loader) {
+        return readThrough(books, id, loader);
+    }
+
+    // Lấy nhiều sách: id nào chưa có trong cache thì load chung 1 lần qua loader
+    public Map<Long, BookResponse> getBooks(Collection<Long> ids, Function<List<Long>, Map<Long, BookResponse>> loader) {
+        Map<Long, BookResponse> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            BookResponse cached = books.get(id);
+            if (cached != null) {
+                result.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) return result;
+
+        long startGeneration = generation.get();
+        Map<Long, BookResponse> loaded = loader.apply(missing);
+        synchronized (invalidationLock) {
+            if (generation.get() == startGeneration) {
+                loaded.forEach(books::put);
+            }
+        }
+        result.putAll(loaded);
+        return result;
+    }
+
+    public PageResponse<BookResponse> getPage(PageKey key, Supplier<PageResponse<BookResponse>> loader) {
+        return readThrough(pages, key, loader);
+    }
+
+    private <K, V> V readThrough(TtlCache<K, V> cache, K key, Supplier<V> loader) {
+        V cached = cache.get(key);
+        if (cached != null) return cached;
+
+        long startGeneration = generation.get();
+        V loaded = loader.get();
+        synchronized (invalidationLock) {
+            if (generation.get() == startGeneration) {
+                cache.put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    // Sau các index tìm kiếm, trước CatalogVersions
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(0)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        synchronized (invalidationLock) {
+            generation.incrementAndGet();
+            invalidate(event);
+        }
+    }
+
+    private void invalidate(CatalogChangedEvent event) {
+        Collection<Long> ids = event.getIds();
+
+        if (event.getTarget() != CatalogChangedEvent.Target.BOOK) {
+            // Tác giả/thể loại mới chưa gắn với sách nào nên không ảnh hưởng dữ liệu đã cache
+            if (event.getChange() == CatalogChangedEvent.Change.CREATED) return;
+            // Đổi tên tác giả/thể loại/NXB ảnh hưởng nhiều sách, xóa hết cho đơn giản
+            books.clear();
+            pages.clear();
+            return;
+        }
+
+        ids.forEach(books::invalidate);
+        if (event.getChange() == CatalogChangedEvent.Change.COPIES_CHANGED) {
+            // Chỉ đổi số bản còn lại: xóa đúng các trang đang chứa sách đó
+            pages.invalidateIf((key, page) -> page.getData().stream().anyMatch(b -> ids.contains(b.getId())));
+        } else {
+            // Thêm/xóa/sửa sách làm lệch thứ tự và kết quả tìm kiếm của mọi trang
+            pages.clear();
+        }
+    }
+
+    public List<CacheStatsResponse> getStats() {
+        return List.of(toStats("books", books), toStats("pages", pages));
+    }
+
+    private CacheStatsResponse toStats(String name, TtlCache<?, ?> cache) {
+        long hits = cache.hits();
+        long misses = cache.misses();
+        return CacheStatsResponse.builder()
+                .name(name)
+                .size(cache.size())
+                .hits(hits)
+                .misses(misses)
+                .hitRate(hits + misses == 0 ? 0 : (double) hits / (hits + misses))
+                .build();
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.libraryBe.service;
+
+import com.example.libraryBe.dto.FacetResponse;
+import com.example.libraryBe.entity.Author;
+import com.example.libraryBe.entity.Book;
+import com.example.libraryBe.entity.Category;
+import com.example.libraryBe.entity.Publisher;
+import com.example.libraryBe.event.CatalogChangedEvent;
+import com.example.libraryBe.repository.AuthorRepository;
+import com.example.libraryBe.repository.BookRepository;
+import com.example.libraryBe.repository.CategoryRepository;
+import com.example.libraryBe.repository.PublisherRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Bitmap (Roaring) các id sách theo từng thể loại, tác giả, NXB và tình trạng còn sách.
+// Đếm facet = giao bitmap của giá trị với bitmap kết quả tìm kiếm, không cần GROUP BY trên DB.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookFacetIndex {
+
+    private static final int LOAD_BATCH_SIZE = 500;
+    private static final int TOP_VALUES = 20;
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final CategoryRepository categoryRepository;
+    private final PublisherRepository publisherRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap allBooks = new RoaringBitmap();
+    private final RoaringBitmap availableBooks = new RoaringBitmap();
+    private final Facet categories = new Facet();
+    private final Facet authors = new Facet();
+    private final Facet publishers = new Facet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        long afterId = 0;
+        List<Long> ids;
+        while (!(ids = bookRepository.findIdsAfter(afterId, PageRequest.of(0, LOAD_BATCH_SIZE))).isEmpty()) {
+            load(ids);
+            afterId = ids.get(ids.size() - 1);
+        }
+        log.info("Built book facet index: {} books in {} ms", allBooks.getCardinality(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        switch (event.getTarget()) {
+            case BOOK -> {
+                switch (event.getChange()) {
+                    case DELETED -> remove(event.getIds());
+                    case COPIES_CHANGED -> refreshAvailability(event.getIds());
+                    default -> load(event.getIds());
+                }
+            }
+            case AUTHOR -> rename(authors, event.getIds(), id -> authorRepository.findById(id).map(Author::getName));
+            case CATEGORY -> rename(categories, event.getIds(), id -> categoryRepository.findById(id).map(Category::getName));
+            case PUBLISHER -> rename(publishers, event.getIds(), id -> publisherRepository.findById(id).map(Publisher::getName));
+        }
+    }
+
+    // Bitmap các sách thỏa bộ lọc tác giả/thể loại (null = không lọc)
+    public RoaringBitmap filter(Long authorId, Long categoryId) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = allBooks.clone();
+            if (authorId != null) result.and(authors.bitmap(authorId));
+            if (categoryId != null) result.and(categories.bitmap(categoryId));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static RoaringBitmap toBitmap(Collection<Long> bookIds) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        bookIds.forEach(id -> bitmap.add(Math.toIntExact(id)));
+        return bitmap;
+    }
+
+    public FacetResponse facets(RoaringBitmap matches) {
+        lock.readLock().lock();
+        try {
+            long available = RoaringBitmap.andCardinality(matches, availableBooks);
+            return FacetResponse.builder()
+                    .categories(categories.count(matches))
+                    .authors(authors.count(matches))
+                    .publishers(publishers.count(matches))
+                    .available(available)
+                    .unavailable(matches.getLongCardinality() - available)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void load(Collection<Long> bookIds) {
+        List<Book> books = bookRepository.findByIdIn(bookIds);
+        lock.writeLock().lock();
+        try {
+            // Sách không còn trong DB (đã bị xóa) thì gỡ khỏi index
+            bookIds.forEach(id -> removeLocked(Math.toIntExact(id)));
+            for (Book book : books) {
+                int id = Math.toIntExact(book.getId());
+                allBooks.add(id);
+                if (book.getAvailableCount() > 0) availableBooks.add(id);
+                categories.set(id, book.getCategories().stream().collect(Collectors.toMap(Category::getId, Category::getName)));
+                authors.set(id, book.getAuthors().stream().collect(Collectors.toMap(Author::getId, Author::getName)));
+                publishers.set(id, book.getPublisher() == null ? Map.of()
+                        : Map.of(book.getPublisher().getId(), book.getPublisher().getName()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void refreshAvailability(Collection<Long> bookIds) {
+        Set<Long> available = availableIds(bookIds);
+        lock.writeLock().lock();
+        try {
+            for (Long bookId : bookIds) {
+                int id = Math.toIntExact(bookId);
+                if (available.contains(bookId) && allBooks.contains(id)) {
+                    availableBooks.add(id);
+                } else {
+                    availableBooks.remove(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Collection<Long> bookIds) {
+        lock.writeLock().lock();
+        try {
+            bookIds.forEach(id -> removeLocked(Math.toIntExact(id)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(int bookId) {
+        allBooks.remove(bookId);
+        availableBooks.remove(bookId);
+        categories.remove(bookId);
+        authors.remove(bookId);
+        publishers.remove(bookId);
+    }
+
+    private void rename(Facet facet, Collection<Long> valueIds, Function<Long, Optional<String>> nameLoader) {
+        Map<Long, Optional<String>> names = valueIds.stream().collect(Collectors.toMap(Function.identity(), nameLoader));
+        lock.writeLock().lock();
+        try {
+            names.forEach((id, name) -> name.ifPresent(n -> facet.names.put(id, n)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Set<Long> availableIds(Collection<Long> bookIds) {
+        return new HashSet<>(bookRepository.findIdsWithAvailableCopies(bookIds));
+    }
+
+    // Một chiều facet: giá trị -> bitmap sách, và chiều ngược sách -> các giá trị để gỡ khi sách thay đổi
+    private static class Facet {
+        private final Map<Long, RoaringBitmap> bitmaps = new HashMap<>();
+        private final Map<Integer, long[]> valuesByBook = new HashMap<>();
+        private final Map<Long, String> names = new HashMap<>();
+
+        RoaringBitmap bitmap(Long valueId) {
+            RoaringBitmap bitmap = bitmaps.get(valueId);
+            return bitmap != null ? bitmap : new RoaringBitmap();
+        }
+
+        void set(int bookId, Map<Long, String> values) {
+            remove(bookId);
+            if (values.isEmpty()) return;
+            values.forEach((valueId, name) -> {
+                bitmaps.computeIfAbsent(valueId, v -> new RoaringBitmap()).add(bookId);
+                names.put(valueId, name);
+            });
+            valuesByBook.put(bookId, values.keySet().stream().mapToLong(Long::longValue).toArray());
+        }
+
+        void remove(int bookId) {
+            long[] values = valuesByBook.remove(bookId);
+            if (values == null) return;
+            for (long valueId : values) {
+                RoaringBitmap bitmap = bitmaps.get(valueId);
+                bitmap.remove(bookId);
+                if (bitmap.isEmpty()) bitmaps.remove(valueId);
+            }
+        }
+
+        // Kết quả ít hơn số giá trị thì duyệt từng sách, ngược lại giao bitmap từng giá trị
+        List<FacetResponse.FacetCount> count(RoaringBitmap matches) {
+            Map<Long, Long> counts = new HashMap<>();
+            if (matches.getLongCardinality() < bitmaps.size()) {
+                matches.forEach((int bookId) -> {
+                    long[] values = valuesByBook.get(bookId);
+                    if (values == null) return;
+                    for (long valueId : values) counts.merge(valueId, 1L, Long::sum);
+                });
+            } else {
+                bitmaps.forEach((valueId, bitmap) -> {
+                    long count = RoaringBitmap.andCardinality(bitmap, matches);
+                    if (count > 0) counts.put(valueId, count);
+                });
+            }
+            return counts.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                    .limit(TOP_VALUES)
+                    .map(e -> FacetResponse.FacetCount.builder()
+                            .id(e.getKey())
+                            .name(names.get(e.getKey()))
+                            .count(e.getValue())
+                            .build())
+                    .collect(Collectors.toList());
+        }
+    }
+}
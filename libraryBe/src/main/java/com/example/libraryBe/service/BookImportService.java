@@ -0,0 +1,293 @@
+package com.example.libraryBe.service;
+
+import com.example.libraryBe.dto.BookRequest;
+import com.example.libraryBe.dto.ImportResult;
+import com.example.libraryBe.event.CatalogChangedEvent;
+import com.example.libraryBe.model.BookCopyStatus;
+import com.example.libraryBe.util.CsvReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Nhập sách hàng loạt từ CSV hoặc NDJSON (mỗi dòng 1 JSON dạng BookRequest).
+// Đọc luồng từng dòng, gom CHUNK_SIZE dòng thì ghi bằng JDBC batch trong 1 transaction, dòng lỗi được bỏ qua và báo lại.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_COPIES_PER_ROW = 1000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    // Ô nhiều giá trị (tác giả, thể loại) trong CSV ngăn cách bằng ;
+    private static final String MULTI_VALUE_SEPARATOR = ";";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NameDictionary nameDictionary;
+    private final IdAllocator idAllocator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    private record Row(long line, BookRequest request) {
+    }
+
+    private record PreparedBook(long line, BookRequest request, Long publisherId,
+                                Set<Long> authorIds, Set<Long> categoryIds, int copies) {
+    }
+
+    // Đếm kết quả trong suốt quá trình import
+    private static class Progress {
+        private long totalRows;
+        private long imported;
+        private final List<ImportResult.RowError> errors = new ArrayList<>();
+        private long failed;
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) errors.add(new ImportResult.RowError(line, message));
+        }
+    }
+
+    public ImportResult importBooks(InputStream input, Format format) {
+        long start = System.currentTimeMillis();
+        Progress progress = new Progress();
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Iterator<Row> rows = format == Format.CSV ? csvRows(reader, progress) : ndjsonRows(reader, progress);
+            while (rows.hasNext()) {
+                chunk.add(rows.next());
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+            writeChunk(chunk, progress);
+        } catch (IOException e) {
+            throw new RuntimeException("Không đọc được file import: " + e.getMessage());
+        }
+
+        log.info("Imported {}/{} books in {} ms", progress.imported, progress.totalRows, System.currentTimeMillis() - start);
+        return ImportResult.builder()
+                .totalRows(progress.totalRows)
+                .imported(progress.imported)
+                .failed(progress.failed)
+                .errors(progress.errors)
+                .build();
+    }
+
+    private void writeChunk(List<Row> chunk, Progress progress) {
+        if (chunk.isEmpty()) return;
+
+        // Tra tên trước khi mở transaction của chunk (ngoài transaction nên tên mới được commit ngay)
+        List<PreparedBook> books = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            try {
+                books.add(prepare(row));
+            } catch (RuntimeException e) {
+                progress.fail(row.line(), e.getMessage());
+            }
+        }
+        if (books.isEmpty()) return;
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(books));
+            progress.imported += books.size();
+        } catch (DataAccessException e) {
+            // Chunk lỗi thì ghi lại từng sách để tìm đúng dòng gây lỗi, các dòng khác vẫn được nhập
+            for (PreparedBook book : books) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(book)));
+                    progress.imported++;
+                } catch (DataAccessException rowError) {
+                    progress.fail(book.line(), "Lỗi ghi dữ liệu: " + rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private PreparedBook prepare(Row row) {
+        BookRequest request = row.request();
+        if (request.getTitle() == null || request.getTitle().isBlank()) {
+            throw new RuntimeException("Thiếu tiêu đề sách");
+        }
+        int copies = request.getInitialCopies() != null ? request.getInitialCopies() : 1;
+        if (copies < 0 || copies > MAX_COPIES_PER_ROW) {
+            throw new RuntimeException("Số bản copy phải từ 0 đến " + MAX_COPIES_PER_ROW);
+        }
+        Long publisherId = NameDictionary.clean(request.getPublisherName()) != null
+                ? nameDictionary.resolve(NameDictionary.Kind.PUBLISHER, request.getPublisherName())
+                : null;
+        return new PreparedBook(row.line(), request, publisherId,
+                nameDictionary.resolveAll(NameDictionary.Kind.AUTHOR, request.getAuthorNames()),
+                nameDictionary.resolveAll(NameDictionary.Kind.CATEGORY, request.getCategoryNames()),
+                copies);
+    }
+
+    // Cấp trước id từ sequence để ghi sách và các bảng nối trong cùng 1 lượt batch
+    private void insert(List<PreparedBook> books) {
+        List<Long> ids = idAllocator.allocate("books_seq", books.size());
+
+        List<Object[]> bookRows = new ArrayList<>(books.size());
+        List<Object[]> authorRows = new ArrayList<>();
+        List<Object[]> categoryRows = new ArrayList<>();
+        List<Object[]> copyRows = new ArrayList<>();
+        for (int i = 0; i < books.size(); i++) {
+            PreparedBook book = books.get(i);
+            Long id = ids.get(i);
+            bookRows.add(new Object[]{id, book.request().getTitle().trim(), book.request().getDescription(),
+                    book.request().getCoverUrl(), 0.0, book.publisherId(), book.copies(), book.copies()});
+            book.authorIds().forEach(authorId -> authorRows.add(new Object[]{id, authorId}));
+            book.categoryIds().forEach(categoryId -> categoryRows.add(new Object[]{id, categoryId}));
+            for (int c = 0; c < book.copies(); c++) {
+                copyRows.add(new Object[]{null, id, BookCopyStatus.AVAILABLE.name(), "New"});
+            }
+        }
+        List<Long> copyIds = idAllocator.allocate("book_copies_seq", copyRows.size());
+        for (int i = 0; i < copyRows.size(); i++) {
+            copyRows.get(i)[0] = copyIds.get(i);
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO books (id, title, description, cover_url, rating, publisher_id, " +
+                "available_count, total_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", bookRows);
+        jdbcTemplate.batchUpdate("INSERT INTO book_authors (book_id, author_id) VALUES (?, ?)", authorRows);
+        jdbcTemplate.batchUpdate("INSERT INTO book_categories (book_id, category_id) VALUES (?, ?)", categoryRows);
+        jdbcTemplate.batchUpdate("INSERT INTO book_copies (id, book_id, status, condition) VALUES (?, ?, ?, ?)", copyRows);
+
+        // Các index/cache cập nhật sau khi chunk commit
+        eventPublisher.publishEvent(new CatalogChangedEvent(
+                CatalogChangedEvent.Target.BOOK, CatalogChangedEvent.Change.CREATED, ids));
+    }
+
+    // Dòng đầu là header, tên cột không phân biệt hoa thường, thứ tự cột tùy ý
+    private Iterator<Row> csvRows(BufferedReader reader, Progress progress) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) return Collections.emptyIterator();
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("title")) {
+            throw new RuntimeException("File CSV thiếu cột title");
+        }
+
+        return new RowIterator(progress) {
+            @Override
+            Row read() throws IOException {
+                List<String> fields = csv.next();
+                if (fields == null) return null;
+                BookRequest request = new BookRequest();
+                request.setTitle(field(fields, columns, "title"));
+                request.setDescription(field(fields, columns, "description"));
+                request.setCoverUrl(field(fields, columns, "coverurl"));
+                request.setPublisherName(field(fields, columns, "publishername"));
+                request.setAuthorNames(splitValues(field(fields, columns, "authornames")));
+                request.setCategoryNames(splitValues(field(fields, columns, "categorynames")));
+                String copies = field(fields, columns, "initialcopies");
+                if (copies != null && !copies.isBlank()) {
+                    try {
+                        request.setInitialCopies(Integer.parseInt(copies.trim()));
+                    } catch (NumberFormatException e) {
+                        return invalid(csv.getRecordLine(), "initialCopies không phải số: " + copies);
+                    }
+                }
+                return new Row(csv.getRecordLine(), request);
+            }
+        };
+    }
+
+    private Iterator<Row> ndjsonRows(BufferedReader reader, Progress progress) {
+        return new RowIterator(progress) {
+            private long line;
+
+            @Override
+            Row read() throws IOException {
+                String text;
+                do {
+                    text = reader.readLine();
+                    line++;
+                } while (text != null && text.isBlank());
+                if (text == null) return null;
+                try {
+                    return new Row(line, objectMapper.readValue(text, BookRequest.class));
+                } catch (JsonProcessingException e) {
+                    return invalid(line, "JSON không hợp lệ: " + e.getOriginalMessage());
+                }
+            }
+        };
+    }
+
+    // Duyệt các dòng hợp lệ; dòng không parse được thì ghi lỗi và đọc tiếp
+    private abstract static class RowIterator implements Iterator<Row> {
+        private static final Row INVALID = new Row(-1, null);
+
+        private final Progress progress;
+        private Row next;
+        private boolean done;
+
+        RowIterator(Progress progress) {
+            this.progress = progress;
+        }
+
+        abstract Row read() throws IOException;
+
+        Row invalid(long line, String message) {
+            progress.fail(line, message);
+            return INVALID;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !done) {
+                Row row;
+                try {
+                    row = read();
+                } catch (IOException e) {
+                    throw new RuntimeException("Không đọc được file import: " + e.getMessage());
+                }
+                if (row == null) {
+                    done = true;
+                } else {
+                    progress.totalRows++;
+                    if (row != INVALID) next = row;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Row row = next;
+            next = null;
+            return row;
+        }
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index != null && index < fields.size() ? fields.get(index) : null;
+    }
+
+    private static List<String> splitValues(String value) {
+        if (value == null || value.isBlank()) return List.of();
+        return Arrays.stream(value.split(MULTI_VALUE_SEPARATOR)).map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+}
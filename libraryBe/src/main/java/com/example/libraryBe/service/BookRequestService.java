@@ -1,13 +1,13 @@
 package com.example.libraryBe.service;
 
+import com.example.libraryBe.dto.BatchProcessRequest;
+import com.example.libraryBe.dto.BatchProcessResult;
 import com.example.libraryBe.entity.Book;
 import com.example.libraryBe.entity.BookLoan;
 import com.example.libraryBe.entity.BookRequest;
 import com.example.libraryBe.entity.User;
-import com.example.libraryBe.model.BookCopyStatus;
 import com.example.libraryBe.model.RequestStatus;
 import com.example.libraryBe.model.RequestType;
-import com.example.libraryBe.repository.BookCopyRepository;
 import com.example.libraryBe.repository.BookRepository;
 import com.example.libraryBe.repository.BookRequestRepository;
 import com.example.libraryBe.repository.UserRepository;
@@ -16,20 +16,25 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookRequestService {
 
+    public static final int MAX_BATCH_SIZE = 500;
+
     private final BookRequestRepository requestRepository;
     private final BookRepository bookRepository;
-    private final BookCopyRepository bookCopyRepository;
     private final UserRepository userRepository;
     private final LoanService loanService;
+    private final HoldService holdService;
 
-    // user tạo yêu cầu mượn
-    public void createBorrowRequest(String username, Long bookId) {
+    // user tạo yêu cầu mượn; sách đã hết bản thì xếp hàng chờ (trả về true)
+    @Transactional
+    public boolean createBorrowRequest(String username, Long bookId) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -42,9 +47,10 @@ public class BookRequestService {
             throw new RuntimeException("Bạn đang có yêu cầu chờ duyệt cho cuốn sách này rồi!");
         }
 
-        long availableCopies = bookCopyRepository.countByBookIdAndStatus(bookId, BookCopyStatus.AVAILABLE);
-        if (availableCopies <= 0) {
-            throw new RuntimeException("Sách này hiện đã hết bản lưu kho!");
+        // Đọc bộ đếm trên dòng books vừa load theo khóa chính, không đếm book_copies
+        if (book.getAvailableCount() <= 0) {
+            holdService.placeHold(user, book);
+            return true;
         }
 
         BookRequest request = BookRequest.builder()
@@ -55,11 +61,12 @@ public class BookRequestService {
                 .build();
 
         requestRepository.save(request);
+        return false;
     }
 
     // Lấy danh sách cho Admin
     public List<BookRequest> getAllRequests() {
-        return requestRepository.findAll(Sort.by("status").ascending().and(Sort.by("createdAt").descending()));
+        return requestRepository.findAllWithDetails(Sort.by("status").ascending().and(Sort.by("createdAt").descending()));
     }
 
     // Lấy danh sách cá nhân
@@ -89,6 +96,8 @@ public class BookRequestService {
         if (newStatus == RequestStatus.DENIED) {
             request.setStatus(RequestStatus.DENIED);
             requestRepository.save(request);
+            // Bản đang giữ cho user (nếu có) chuyển cho người kế tiếp trong hàng chờ
+            holdService.releaseHold(request.getUser().getId(), request.getBook().getId());
         } else if (newStatus == RequestStatus.ACCEPTED) {
             BookLoan newLoan = loanService.createLoanFromRequest(request.getUser(), request.getBook());
             request.setStatus(RequestStatus.ACCEPTED);
@@ -97,6 +106,118 @@ public class BookRequestService {
         }
     }
 
+    // Duyệt/Từ chối nhiều yêu cầu trong 1 transaction, trả về kết quả từng yêu cầu.
+    // Yêu cầu lỗi (không tồn tại, đã xử lý, hết bản) không làm hỏng các yêu cầu còn lại.
+    @Transactional
+    public BatchProcessResult processBatch(List<BatchProcessRequest.Item> items) {
+        if (items == null || items.isEmpty()) {
+            throw new RuntimeException("Danh sách yêu cầu trống!");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("Chỉ xử lý tối đa " + MAX_BATCH_SIZE + " yêu cầu mỗi lần!");
+        }
+
+        // requestId -> kết quả; id gửi trùng thì lấy quyết định sau cùng
+        Map<Long, BatchProcessResult.Outcome> outcomes = new LinkedHashMap<>();
+        Map<Long, RequestStatus> decisions = new HashMap<>();
+        for (BatchProcessRequest.Item item : items) {
+            if (item.getRequestId() == null) continue; // Báo lỗi riêng khi tổng hợp kết quả
+            RequestStatus decision = parseDecision(item.getStatus());
+            if (decision == null) {
+                decisions.remove(item.getRequestId());
+                outcomes.put(item.getRequestId(), failure(item.getRequestId(), "Trạng thái không hợp lệ!"));
+            } else {
+                decisions.put(item.getRequestId(), decision);
+                outcomes.put(item.getRequestId(), null);
+            }
+        }
+        if (decisions.isEmpty()) return summarize(items, outcomes);
+
+        Set<Long> locked = new HashSet<>(requestRepository.lockPendingIds(decisions.keySet()));
+        Map<Long, BookRequest> requests = requestRepository.findWithDetailsByIdIn(decisions.keySet()).stream()
+                .collect(Collectors.toMap(BookRequest::getId, Function.identity()));
+
+        List<BookRequest> toAccept = new ArrayList<>();
+        List<BookRequest> processed = new ArrayList<>();
+        for (Map.Entry<Long, RequestStatus> entry : decisions.entrySet()) {
+            Long id = entry.getKey();
+            BookRequest request = requests.get(id);
+            if (request == null) {
+                outcomes.put(id, failure(id, "Request not found"));
+            } else if (!locked.contains(id)) {
+                outcomes.put(id, failure(id, request.getStatus() != RequestStatus.PENDING
+                        ? "Request này đã được xử lý rồi!"
+                        : "Request đang được xử lý bởi người khác!"));
+            } else if (entry.getValue() == RequestStatus.DENIED) {
+                request.setStatus(RequestStatus.DENIED);
+                holdService.releaseHold(request.getUser().getId(), request.getBook().getId());
+                processed.add(request);
+                outcomes.put(id, new BatchProcessResult.Outcome(id, true, RequestStatus.DENIED, null, null));
+            } else {
+                toAccept.add(request);
+            }
+        }
+
+        Map<Long, BookLoan> loans = loanService.createLoansFromRequests(toAccept);
+        for (BookRequest request : toAccept) {
+            BookLoan loan = loans.get(request.getId());
+            if (loan == null) {
+                outcomes.put(request.getId(), failure(request.getId(),
+                        "Sách '" + request.getBook().getTitle() + "' hiện đã hết bản lưu kho, không thể duyệt!"));
+                continue;
+            }
+            request.setStatus(RequestStatus.ACCEPTED);
+            request.setBookLoan(loan);
+            processed.add(request);
+            outcomes.put(request.getId(),
+                    new BatchProcessResult.Outcome(request.getId(), true, RequestStatus.ACCEPTED, loan.getId(), null));
+        }
+        // Các UPDATE được gom thành JDBC batch khi flush
+        requestRepository.saveAll(processed);
+        return summarize(items, outcomes);
+    }
+
+    private static RequestStatus parseDecision(String statusStr) {
+        if (statusStr == null) return null;
+        try {
+            RequestStatus status = RequestStatus.valueOf(statusStr.toUpperCase());
+            return status == RequestStatus.PENDING ? null : status;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static BatchProcessResult.Outcome failure(Long requestId, String message) {
+        return new BatchProcessResult.Outcome(requestId, false, null, null, message);
+    }
+
+    // Mỗi phần tử gửi lên có đúng 1 kết quả, cùng thứ tự. Id gửi trùng: chỉ lần cuối được xử lý, các lần trước báo lỗi
+    private static BatchProcessResult summarize(List<BatchProcessRequest.Item> items,
+                                                Map<Long, BatchProcessResult.Outcome> outcomes) {
+        Map<Long, Integer> lastIndex = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).getRequestId() != null) lastIndex.put(items.get(i).getRequestId(), i);
+        }
+        List<BatchProcessResult.Outcome> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Long id = items.get(i).getRequestId();
+            if (id == null) {
+                results.add(failure(null, "Thiếu requestId!"));
+            } else if (lastIndex.get(id) != i) {
+                results.add(failure(id, "requestId bị gửi trùng, chỉ xử lý quyết định sau cùng!"));
+            } else {
+                results.add(outcomes.get(id));
+            }
+        }
+        return BatchProcessResult.builder()
+                .accepted((int) results.stream().filter(o -> o.getStatus() == RequestStatus.ACCEPTED).count())
+                .denied((int) results.stream().filter(o -> o.getStatus() == RequestStatus.DENIED).count())
+                .failed((int) results.stream().filter(o -> !o.isSuccess()).count())
+                .results(results)
+                .build();
+    }
+
+    @Transactional
     public void cancelRequest(Long requestId, String username) {
         BookRequest request = requestRepository.findById(requestId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy yêu cầu!"));
@@ -110,5 +231,6 @@ public class BookRequestService {
         }
 
         requestRepository.delete(request);
+        holdService.releaseHold(request.getUser().getId(), request.getBook().getId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.example.libraryBe.service;
+
+import java.util.List;
+
+// Backend tìm kiếm sách theo keyword, chọn theo application.catalog.search-backend (memory | postgres)
+public interface BookSearchEngine {
+
+    record Hit(Long bookId, double score) {
+    }
+
+    record SearchResult(List<Hit> hits, long total) {
+    }
+
+    // truncated = true khi tập khớp lớn hơn MAX_FACET_IDS và ids chỉ là phần liên quan nhất
+    record FacetIds(List<Long> ids, boolean truncated) {
+    }
+
+    // Kết quả sắp xếp theo điểm giảm dần, cùng điểm thì id mới trước
+    SearchResult search(String keyword, Long authorId, Long categoryId, int offset, int limit);
+
+    // Keyset pagination: tối đa limit kết quả đứng sau after (null = từ đầu), không đếm tổng
+    List<Hit> searchAfter(String keyword, Long authorId, Long categoryId, Hit after, int limit);
+
+    // Id sách khớp (không phân trang), dùng để tính facet. Backend có thể giới hạn ở MAX_FACET_IDS kết quả điểm cao nhất
+    // và khi đó phải báo truncated
+    int MAX_FACET_IDS = 10_000;
+
+    FacetIds findAllIds(String keyword, Long authorId, Long categoryId);
+}
@@ -0,0 +1,248 @@
+package com.example.libraryBe.service;
+
+import com.example.libraryBe.entity.Author;
+import com.example.libraryBe.entity.Book;
+import com.example.libraryBe.entity.Category;
+import com.example.libraryBe.event.CatalogChangedEvent;
+import com.example.libraryBe.repository.BookRepository;
+import com.example.libraryBe.util.TextNormalizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+// Inverted index trong bộ nhớ cho ô tìm kiếm: token (đã bỏ dấu) -> các sách chứa token đó.
+// Tìm theo tiền tố của từng từ, sách phải khớp tất cả các từ của keyword.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "application.catalog.search-backend", havingValue = "memory", matchIfMissing = true)
+@RequiredArgsConstructor
+public class BookSearchIndex implements BookSearchEngine {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int CATEGORY_WEIGHT = 1;
+    private static final int LOAD_BATCH_SIZE = 500;
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparing(Hit::bookId, Comparator.reverseOrder());
+
+    private final BookRepository bookRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    // Khác null khi rebuild() đang dựng bản mới: id sách thay đổi trong lúc đó, index lại sau khi tráo (giữ write lock)
+    private Set<Long> missed;
+
+    private record IndexedBook(Map<String, Integer> terms, Set<Long> authorIds, Set<Long> categoryIds) {
+    }
+
+    // Dựng index mới ngoài lock rồi tráo vào trong 1 write lock ngắn: tìm kiếm vẫn chạy trên bản cũ lúc đọc DB
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            missed = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Index fresh = new Index();
+        long afterId = 0;
+        List<Long> ids;
+        while (!(ids = bookRepository.findIdsAfter(afterId, PageRequest.of(0, LOAD_BATCH_SIZE))).isEmpty()) {
+            bookRepository.findByIdIn(ids).forEach(fresh::put);
+            afterId = ids.get(ids.size() - 1);
+        }
+
+        Set<Long> pending;
+        lock.writeLock().lock();
+        try {
+            index = fresh;
+            pending = missed;
+            missed = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!pending.isEmpty()) reindex(pending);
+        log.info("Built book search index: {} books, {} terms in {} ms",
+                fresh.books.size(), fresh.postings.size(), System.currentTimeMillis() - start);
+    }
+
+    // Cập nhật sau khi transaction commit để không index dữ liệu bị rollback.
+    // Chạy trước các listener khác (cache) để chúng không đọc lại index cũ
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.getChange() == CatalogChangedEvent.Change.COPIES_CHANGED) return;
+        Collection<Long> bookIds = switch (event.getTarget()) {
+            case BOOK -> event.getIds();
+            case AUTHOR -> event.getIds().stream()
+                    .flatMap(id -> bookRepository.findIdsByAuthorId(id).stream())
+                    .collect(Collectors.toSet());
+            case CATEGORY -> event.getIds().stream()
+                    .flatMap(id -> bookRepository.findIdsByCategoryId(id).stream())
+                    .collect(Collectors.toSet());
+            case PUBLISHER -> List.of();
+        };
+        if (bookIds.isEmpty()) return;
+
+        if (event.getTarget() == CatalogChangedEvent.Target.BOOK
+                && event.getChange() == CatalogChangedEvent.Change.DELETED) {
+            lock.writeLock().lock();
+            try {
+                if (missed != null) missed.addAll(bookIds);
+                bookIds.forEach(index::evict);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+        reindex(bookIds);
+    }
+
+    // Đọc lại các sách từ DB; sách không còn tồn tại thì gỡ khỏi index
+    private void reindex(Collection<Long> bookIds) {
+        List<Book> changed = bookRepository.findByIdIn(bookIds);
+        lock.writeLock().lock();
+        try {
+            if (missed != null) missed.addAll(bookIds);
+            bookIds.forEach(index::evict);
+            changed.forEach(index::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public SearchResult search(String keyword, Long authorId, Long categoryId, int offset, int limit) {
+        List<Hit> matches = matches(keyword, authorId, categoryId);
+        // Chỉ cần sắp offset + limit kết quả đầu, không sắp toàn bộ danh sách khớp
+        List<Hit> top = topK(matches, (int) Math.min((long) offset + limit, Integer.MAX_VALUE), null);
+        int from = Math.min(offset, top.size());
+        return new SearchResult(List.copyOf(top.subList(from, top.size())), matches.size());
+    }
+
+    @Override
+    public List<Hit> searchAfter(String keyword, Long authorId, Long categoryId, Hit after, int limit) {
+        return topK(matches(keyword, authorId, categoryId), limit, after);
+    }
+
+    @Override
+    public FacetIds findAllIds(String keyword, Long authorId, Long categoryId) {
+        return new FacetIds(matches(keyword, authorId, categoryId).stream().map(Hit::bookId).collect(Collectors.toList()),
+                false);
+    }
+
+    // Tối đa k kết quả tốt nhất đứng sau after (null = từ đầu) theo RANKING, dùng heap giới hạn k phần tử:
+    // O(n log k) thay vì sắp toàn bộ n kết quả khớp
+    static List<Hit> topK(Collection<Hit> hits, int k, Hit after) {
+        if (k <= 0) return List.of();
+        // Đầu heap là kết quả kém nhất trong k kết quả đang giữ
+        PriorityQueue<Hit> heap = new PriorityQueue<>(Math.min(k, Math.max(hits.size(), 1)) + 1, RANKING.reversed());
+        for (Hit hit : hits) {
+            if (after != null && RANKING.compare(hit, after) <= 0) continue;
+            if (heap.size() < k) {
+                heap.add(hit);
+            } else if (RANKING.compare(hit, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+        List<Hit> result = new ArrayList<>(heap);
+        result.sort(RANKING);
+        return result;
+    }
+
+    // Các sách khớp tất cả từ của keyword và bộ lọc, chưa sắp xếp
+    private List<Hit> matches(String keyword, Long authorId, Long categoryId) {
+        List<String> queryTokens = TextNormalizer.tokenize(keyword);
+        if (queryTokens.isEmpty()) return List.of();
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String queryToken : new LinkedHashSet<>(queryTokens)) {
+                Map<Long, Double> tokenScores = matchPrefix(queryToken);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((id, score) -> score + tokenScores.get(id));
+                }
+                if (scores.isEmpty()) return List.of();
+            }
+
+            List<Hit> hits = new ArrayList<>(scores.size());
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                IndexedBook book = index.books.get(entry.getKey());
+                if (authorId != null && !book.authorIds().contains(authorId)) continue;
+                if (categoryId != null && !book.categoryIds().contains(categoryId)) continue;
+                hits.add(new Hit(entry.getKey(), entry.getValue()));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Điểm của 1 từ trong keyword = trọng số cao nhất trong các token bắt đầu bằng từ đó, khớp nguyên từ thì x2
+    private Map<Long, Double> matchPrefix(String queryToken) {
+        Map<Long, Double> result = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Integer>> term : index.postings.tailMap(queryToken, true).entrySet()) {
+            if (!term.getKey().startsWith(queryToken)) break;
+            int boost = term.getKey().length() == queryToken.length() ? 2 : 1;
+            term.getValue().forEach((bookId, weight) -> result.merge(bookId, (double) weight * boost, Math::max));
+        }
+        return result;
+    }
+
+    // postings: token -> (bookId -> trọng số). Index đang dùng chỉ được sửa khi giữ write lock
+    private static class Index {
+        private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private final Map<Long, IndexedBook> books = new HashMap<>();
+
+        private void put(Book book) {
+            evict(book.getId());
+
+            Map<String, Integer> terms = new HashMap<>();
+            addTerms(terms, book.getTitle(), TITLE_WEIGHT);
+            book.getAuthors().forEach(a -> addTerms(terms, a.getName(), AUTHOR_WEIGHT));
+            book.getCategories().forEach(c -> addTerms(terms, c.getName(), CATEGORY_WEIGHT));
+
+            terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(book.getId(), weight));
+            books.put(book.getId(), new IndexedBook(
+                    terms,
+                    book.getAuthors().stream().map(Author::getId).collect(Collectors.toSet()),
+                    book.getCategories().stream().map(Category::getId).collect(Collectors.toSet())));
+        }
+
+        private void evict(Long bookId) {
+            IndexedBook old = books.remove(bookId);
+            if (old == null) return;
+            for (String term : old.terms().keySet()) {
+                Map<Long, Integer> ids = postings.get(term);
+                if (ids == null) continue;
+                ids.remove(bookId);
+                if (ids.isEmpty()) postings.remove(term);
+            }
+        }
+
+        // Token xuất hiện ở nhiều trường thì cộng dồn trọng số
+        private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+            for (String token : new HashSet<>(TextNormalizer.tokenize(text))) {
+                terms.merge(token, weight, Integer::sum);
+            }
+        }
+    }
+}
@@ -1,61 +1,174 @@
 package com.example.libraryBe.service;
 
 import com.example.libraryBe.dto.BookResponse;
+import com.example.libraryBe.dto.FacetResponse;
 import com.example.libraryBe.dto.PageResponse;
 import com.example.libraryBe.entity.Author;
 import com.example.libraryBe.entity.Book;
-import com.example.libraryBe.entity.BookCopy;
 import com.example.libraryBe.entity.Category;
-import com.example.libraryBe.model.BookCopyStatus;
-import com.example.libraryBe.repository.BookCopyRepository;
 import com.example.libraryBe.repository.BookRepository;
+import com.example.libraryBe.util.PageCursor;
 import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookService {
+    public static final int MAX_BATCH_IDS = 200;
+
     private final BookRepository bookRepository;
-    private final BookCopyRepository bookCopyRepository;
+    private final BookSearchEngine bookSearchEngine;
+    private final BookCatalogCache catalogCache;
+    private final BookFacetIndex bookFacetIndex;
 
     public PageResponse<BookResponse> getAllBooks(int page, int size, String keyword, Long authorId, Long categoryId) {
-        Pageable pageable = PageRequest.of(page - 1, size, Sort.by("id").descending());
+        return catalogCache.getPage(BookCatalogCache.pageKey(keyword, authorId, categoryId, page, size, null),
+                () -> loadBooks(page, size, keyword, authorId, categoryId));
+    }
+
+    public PageResponse<BookResponse> getBooksAfter(String after, int size, String keyword, Long authorId, Long categoryId) {
+        return catalogCache.getPage(BookCatalogCache.pageKey(keyword, authorId, categoryId, 0, size, after),
+                () -> loadBooksAfter(after, size, keyword, authorId, categoryId));
+    }
 
-        Page<Book> bookPage = bookRepository.searchBooks(keyword, authorId, categoryId, pageable);
+    // Facet tính trên toàn bộ kết quả của bộ lọc hiện tại, không phụ thuộc trang đang xem
+    // (backend postgres chỉ đếm trên MAX_FACET_IDS sách liên quan nhất, khi đó truncated = true)
+    public FacetResponse getFacets(String keyword, Long authorId, Long categoryId) {
+        if (keyword == null || keyword.isBlank()) {
+            return bookFacetIndex.facets(bookFacetIndex.filter(authorId, categoryId));
+        }
+        BookSearchEngine.FacetIds found = bookSearchEngine.findAllIds(keyword, authorId, categoryId);
+        FacetResponse facets = bookFacetIndex.facets(BookFacetIndex.toBitmap(found.ids()));
+        facets.setTruncated(found.truncated());
+        return facets;
+    }
+
+    public BookResponse getBookById(Long id) {
+        return catalogCache.getBook(id, () -> loadBook(id));
+    }
 
-        List<BookResponse> bookResponses = bookPage.getContent().stream()
-                .map(this::mapToResponse)
+    // Trả về theo đúng thứ tự ids, bỏ qua id không tồn tại
+    public List<BookResponse> getBooksByIds(List<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new RuntimeException("Chỉ lấy tối đa " + MAX_BATCH_IDS + " sách mỗi lần!");
+        }
+        Map<Long, BookResponse> byId = catalogCache.getBooks(new LinkedHashSet<>(ids), missing ->
+                toResponses(bookRepository.findByIdIn(missing)).stream()
+                        .collect(Collectors.toMap(BookResponse::getId, Function.identity())));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+    }
+
+    private PageResponse<BookResponse> loadBooks(int page, int size, String keyword, Long authorId, Long categoryId) {
+        if (keyword != null && !keyword.isBlank()) {
+            return searchByKeyword(page, size, keyword, authorId, categoryId);
+        }
+
+        Pageable pageable = PageRequest.of(page - 1, size, Sort.by("id").descending());
+
+        Page<Long> idPage = bookRepository.findIdsByFilters(authorId, categoryId, pageable);
 
         return PageResponse.<BookResponse>builder()
                 .currentPage(page)
                 .pageSize(size)
-                .totalPages(bookPage.getTotalPages())
-                .totalElements(bookPage.getTotalElements())
-                .data(bookResponses)
+                .totalPages(idPage.getTotalPages())
+                .totalElements(idPage.getTotalElements())
+                .data(toResponses(findInOrder(idPage.getContent())))
                 .build();
     }
 
-    public BookResponse getBookById(Long id) {
-        Book book = bookRepository.findById(id)
+    // Phân trang theo cursor: lấy dư 1 phần tử để biết còn trang sau hay không, không chạy COUNT
+    private PageResponse<BookResponse> loadBooksAfter(String after, int size, String keyword, Long authorId, Long categoryId) {
+        PageCursor cursor = (after == null || after.isBlank()) ? null : PageCursor.decode(after);
+
+        List<Book> books;
+        String nextCursor = null;
+        if (keyword != null && !keyword.isBlank()) {
+            BookSearchEngine.Hit afterHit = cursor != null ? new BookSearchEngine.Hit(cursor.id(), cursor.sortKey()) : null;
+            List<BookSearchEngine.Hit> hits = bookSearchEngine.searchAfter(keyword, authorId, categoryId, afterHit, size + 1);
+            if (hits.size() > size) {
+                hits = hits.subList(0, size);
+                BookSearchEngine.Hit last = hits.get(size - 1);
+                nextCursor = new PageCursor(last.score(), last.bookId()).encode();
+            }
+            books = findInOrder(hits.stream().map(BookSearchEngine.Hit::bookId).collect(Collectors.toList()));
+        } else {
+            // Không có keyword thì chỉ sắp theo id, sort key luôn là 0
+            List<Long> ids = bookRepository.findIdsPageAfter(cursor != null ? cursor.id() : null, authorId, categoryId,
+                    PageRequest.of(0, size + 1));
+            if (ids.size() > size) {
+                ids = ids.subList(0, size);
+                nextCursor = new PageCursor(0, ids.get(size - 1)).encode();
+            }
+            books = findInOrder(ids);
+        }
+
+        return PageResponse.<BookResponse>builder()
+                .pageSize(size)
+                .data(toResponses(books))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private BookResponse loadBook(Long id) {
+        Book book = bookRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new RuntimeException("Book not found"));
-        return mapToResponse(book);
+        return mapToResponse(book, book.getAvailableCount());
+    }
+
+    // Có keyword thì tìm qua search engine, chỉ query DB để lấy dữ liệu các sách của trang hiện tại
+    private PageResponse<BookResponse> searchByKeyword(int page, int size, String keyword, Long authorId, Long categoryId) {
+        BookSearchEngine.SearchResult result = bookSearchEngine.search(
+                keyword, authorId, categoryId, Math.max(page - 1, 0) * size, size);
+
+        List<Long> pageIds = result.hits().stream()
+                .map(BookSearchEngine.Hit::bookId)
+                .collect(Collectors.toList());
+
+        return PageResponse.<BookResponse>builder()
+                .currentPage(page)
+                .pageSize(size)
+                .totalPages((int) ((result.total() + size - 1) / size))
+                .totalElements(result.total())
+                .data(toResponses(findInOrder(pageIds)))
+                .build();
     }
 
-    private BookResponse mapToResponse(Book book) {
-        // Kiểm tra xem sách này có bản sao nào AVAILABLE không
-        List<BookCopy> copies = bookCopyRepository.findAll();
-        boolean isAvailable = copies.stream()
-                .anyMatch(c -> c.getBook().getId().equals(book.getId())
-                        && c.getStatus() == BookCopyStatus.AVAILABLE);
+    // Giữ đúng thứ tự id truyền vào, bỏ qua sách đã bị xóa
+    private List<Book> findInOrder(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<Long, Book> byId = bookRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // Số bản AVAILABLE lấy từ bộ đếm available_count trên dòng books, không phải đếm book_copies
+    private List<BookResponse> toResponses(List<Book> books) {
+        return books.stream()
+                .map(book -> mapToResponse(book, book.getAvailableCount()))
+                .collect(Collectors.toList());
+    }
 
+    private BookResponse mapToResponse(Book book, long availableCopies) {
         return BookResponse.builder()
                 .id(book.getId())
                 .title(book.getTitle())
@@ -65,7 +178,8 @@ public class BookService {
                 .publisherName(book.getPublisher() != null ? book.getPublisher().getName() : "Unknown")
                 .authors(book.getAuthors().stream().map(Author::getName).collect(Collectors.toList()))
                 .categories(book.getCategories().stream().map(Category::getName).collect(Collectors.toList()))
-                .available(isAvailable)
+                .available(availableCopies > 0)
+                .availableCopies(availableCopies)
                 .build();
     }
 }
\ No newline at end of file
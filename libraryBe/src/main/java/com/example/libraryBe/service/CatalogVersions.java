@@ -0,0 +1,66 @@
+package com.example.libraryBe.service;
+
+import com.example.libraryBe.event.CatalogChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Số phiên bản của từng sách và của danh sách tác giả/thể loại, dùng làm ETag cho API public.
+// ETag kèm thời điểm khởi động để không trùng với ETag cũ sau khi restart (bộ đếm về 0).
+@Component
+public class CatalogVersions {
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Long, Long> books = new ConcurrentHashMap<>();
+    // Tăng khi một thay đổi ảnh hưởng tất cả sách cùng lúc
+    private final AtomicLong allBooks = new AtomicLong();
+    private final AtomicLong authors = new AtomicLong();
+    private final AtomicLong categories = new AtomicLong();
+
+    public String bookTag(Long bookId) {
+        return tag("b" + allBooks.get(), books.getOrDefault(bookId, 0L));
+    }
+
+    public String authorsTag() {
+        return tag("a", authors.get());
+    }
+
+    public String categoriesTag() {
+        return tag("c", categories.get());
+    }
+
+    // Chạy sau cùng, khi cache đã được xóa: client thấy version mới thì dữ liệu đọc được cũng đã mới
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        switch (event.getTarget()) {
+            case BOOK -> {
+                event.getIds().forEach(id -> books.merge(id, 1L, Long::sum));
+                // Tạo/sửa sách có thể tự tạo tác giả, thể loại mới theo tên
+                if (event.getChange() != CatalogChangedEvent.Change.COPIES_CHANGED) {
+                    authors.incrementAndGet();
+                    categories.incrementAndGet();
+                }
+            }
+            // Chi tiết sách chứa tên tác giả/thể loại/NXB, đổi tên thì mọi ETag sách đều cũ
+            case AUTHOR -> {
+                authors.incrementAndGet();
+                allBooks.incrementAndGet();
+            }
+            case CATEGORY -> {
+                categories.incrementAndGet();
+                allBooks.incrementAndGet();
+            }
+            case PUBLISHER -> allBooks.incrementAndGet();
+        }
+    }
+
+    private String tag(String prefix, long version) {
+        return "\"" + prefix + "-" + bootId + "-" + version + "\"";
+    }
+}
@@ -2,8 +2,10 @@ package com.example.libraryBe.service;
 
 import com.example.libraryBe.dto.SimpleRequest;
 import com.example.libraryBe.entity.Category;
+import com.example.libraryBe.event.CatalogChangedEvent;
 import com.example.libraryBe.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -13,21 +15,42 @@ import java.util.List;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NameDictionary nameDictionary;
 
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
     public Category createCategory(SimpleRequest request) {
-        return categoryRepository.save(new Category(null, request.getName()));
+        checkNameAvailable(null, request.getName());
+        Category saved = categoryRepository.save(new Category(null, NameDictionary.clean(request.getName())));
+        eventPublisher.publishEvent(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.CATEGORY, CatalogChangedEvent.Change.CREATED, saved.getId()));
+        return saved;
     }
 
     public Category updateCategory(Long id, SimpleRequest request) {
         Category category = categoryRepository.findById(id).orElseThrow(() -> new RuntimeException("Not found"));
-        category.setName(request.getName());
-        return categoryRepository.save(category);
+        checkNameAvailable(id, request.getName());
+        category.setName(NameDictionary.clean(request.getName()));
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.CATEGORY, CatalogChangedEvent.Change.UPDATED, id));
+        return saved;
     }
 
     public void deleteCategory(Long id) {
         categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.CATEGORY, CatalogChangedEvent.Change.DELETED, id));
     }
-}
\ No newline at end of file
+
+    private void checkNameAvailable(Long id, String name) {
+        if (NameDictionary.clean(name) == null) throw new RuntimeException("Tên không được để trống!");
+        nameDictionary.find(NameDictionary.Kind.CATEGORY, name)
+                .filter(existingId -> !existingId.equals(id))
+                .ifPresent(existingId -> {
+                    throw new RuntimeException("Thể loại '" + name.trim() + "' đã tồn tại!");
+                });
+    }
+}
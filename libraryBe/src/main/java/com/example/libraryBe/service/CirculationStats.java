@@ -0,0 +1,190 @@
+package com.example.libraryBe.service;
+
+import com.example.libraryBe.entity.DailyCirculationStat;
+import com.example.libraryBe.event.CirculationEvent;
+import com.example.libraryBe.repository.BookRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+
+// Duy trì bảng daily_circulation_stats:
+// - Mỗi CirculationEvent (sau commit) được cộng vào bộ đệm trong RAM theo (ngày, sách), không thêm câu SQL nào
+//   vào luồng mượn/trả. flush() định kỳ quy đổi sách -> thể loại và UPSERT cộng dồn vào bảng.
+// - compact() tính lại các ngày gần đây từ book_loans/fines để sửa phần lệch (delta mất khi tắt đột ngột, phí phạt
+//   bị xóa...). Khi bảng còn trống thì dựng lại toàn bộ lịch sử theo từng tháng.
+// - Chỉ tính lại các ngày đã qua, không bao giờ đụng tới hôm nay: event commit xong nhưng chưa vào bộ đệm sẽ vừa
+//   nằm trong kết quả tính lại vừa bị cộng thêm lần nữa khi flush. Hôm nay được sửa ở lượt compact của ngày mai.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CirculationStats {
+
+    private static final String UPSERT = "INSERT INTO daily_circulation_stats " +
+            "(stat_date, category_id, loans, returns, overdue_returns, fines_issued) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (stat_date, category_id) DO UPDATE SET " +
+            "loans = daily_circulation_stats.loans + EXCLUDED.loans, " +
+            "returns = daily_circulation_stats.returns + EXCLUDED.returns, " +
+            "overdue_returns = daily_circulation_stats.overdue_returns + EXCLUDED.overdue_returns, " +
+            "fines_issued = daily_circulation_stats.fines_issued + EXCLUDED.fines_issued";
+
+    // Tính lại [from, to) từ dữ liệu gốc: 1 dòng tổng (category 0) và 1 dòng cho mỗi thể loại có phát sinh
+    private static final String REBUILD = "WITH events AS (" +
+            "SELECT CAST(l.loan_date AS date) AS d, c.book_id, 1 AS loans, 0 AS returns, 0 AS overdue, 0 AS fines " +
+            "FROM book_loans l JOIN book_copies c ON c.id = l.book_copy_id WHERE l.loan_date >= ? AND l.loan_date < ? " +
+            "UNION ALL " +
+            "SELECT CAST(l.return_date AS date), c.book_id, 0, 1, " +
+            "CASE WHEN CAST(l.return_date AS date) > CAST(l.due_date AS date) THEN 1 ELSE 0 END, 0 " +
+            "FROM book_loans l JOIN book_copies c ON c.id = l.book_copy_id WHERE l.return_date >= ? AND l.return_date < ? " +
+            "UNION ALL " +
+            "SELECT CAST(f.created_at AS date), c.book_id, 0, 0, 0, 1 FROM fines f " +
+            "LEFT JOIN book_loans l ON l.id = f.book_loan_id LEFT JOIN book_copies c ON c.id = l.book_copy_id " +
+            "WHERE f.created_at >= ? AND f.created_at < ?) " +
+            "INSERT INTO daily_circulation_stats (stat_date, category_id, loans, returns, overdue_returns, fines_issued) " +
+            "SELECT d, 0, SUM(loans), SUM(returns), SUM(overdue), SUM(fines) FROM events GROUP BY d " +
+            "UNION ALL " +
+            "SELECT e.d, bc.category_id, SUM(e.loans), SUM(e.returns), SUM(e.overdue), SUM(e.fines) " +
+            "FROM events e JOIN book_categories bc ON bc.book_id = e.book_id GROUP BY e.d, bc.category_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookRepository bookRepository;
+
+    @Value("${application.stats.rebuild-days:3}")
+    private int rebuildDays;
+
+    private record DeltaKey(LocalDate date, Long bookId) {
+    }
+
+    // Bộ đệm chưa ghi: (ngày, sách) -> số lượt theo thứ tự Metric
+    private Map<DeltaKey, long[]> pending = new HashMap<>();
+    private final Object flushLock = new Object();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCirculation(CirculationEvent event) {
+        int metric = event.getMetric().ordinal();
+        synchronized (this) {
+            for (Long bookId : event.getBookIds()) {
+                pending.computeIfAbsent(new DeltaKey(event.getDate(), bookId),
+                        k -> new long[CirculationEvent.Metric.values().length])[metric]++;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.stats.flush-delay-ms:30000}")
+    @PreDestroy
+    public void flush() {
+        synchronized (flushLock) {
+            Map<DeltaKey, long[]> deltas = drain();
+            if (deltas.isEmpty()) return;
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(deltas));
+            } catch (RuntimeException e) {
+                // Ghi lỗi thì trả delta về bộ đệm để lượt sau ghi lại
+                restore(deltas);
+                log.warn("Could not flush circulation stats, will retry: {}", e.getMessage());
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM daily_circulation_stats LIMIT 1) s",
+                Integer.class);
+        if (rows != null && rows > 0) {
+            // Các delta còn trong bộ đệm lúc tắt ứng dụng lần trước có thể đã mất
+            compact();
+            return;
+        }
+        LocalDate first = jdbcTemplate.queryForObject("SELECT CAST(LEAST((SELECT MIN(loan_date) FROM book_loans), " +
+                "(SELECT MIN(created_at) FROM fines)) AS date)", LocalDate.class);
+        if (first == null) return;
+
+        long start = System.currentTimeMillis();
+        LocalDate end = LocalDate.now();
+        for (LocalDate from = first.withDayOfMonth(1); from.isBefore(end); from = from.plusMonths(1)) {
+            rebuild(from, from.plusMonths(1).isBefore(end) ? from.plusMonths(1) : end);
+        }
+        log.info("Backfilled circulation stats from {} in {} ms", first, System.currentTimeMillis() - start);
+    }
+
+    @Scheduled(cron = "${application.stats.compact-cron:0 15 4 * * *}")
+    public void compact() {
+        LocalDate today = LocalDate.now();
+        rebuild(today.minusDays(rebuildDays), today);
+    }
+
+    // Ghi các delta đang đệm rồi tính lại [from, to) trong 1 transaction (ghi đè cả phần vừa cộng).
+    // to bị chặn ở hôm nay: ngày đang diễn ra chỉ được cộng dồn từ event
+    public void rebuild(LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now();
+        if (to.isAfter(today)) to = today;
+        if (!from.isBefore(to)) return;
+        synchronized (flushLock) {
+            flush();
+            Date start = Date.valueOf(from);
+            Date end = Date.valueOf(to);
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM daily_circulation_stats WHERE stat_date >= ? AND stat_date < ?", start, end);
+                jdbcTemplate.update(REBUILD, start, end, start, end, start, end);
+            });
+        }
+    }
+
+    private synchronized Map<DeltaKey, long[]> drain() {
+        Map<DeltaKey, long[]> deltas = pending;
+        pending = new HashMap<>();
+        return deltas;
+    }
+
+    private synchronized void restore(Map<DeltaKey, long[]> deltas) {
+        deltas.forEach((key, counts) -> {
+            long[] target = pending.computeIfAbsent(key, k -> new long[counts.length]);
+            for (int i = 0; i < counts.length; i++) target[i] += counts[i];
+        });
+    }
+
+    // Quy đổi (ngày, sách) -> (ngày, thể loại) và dòng tổng, rồi UPSERT bằng 1 JDBC batch
+    private void write(Map<DeltaKey, long[]> deltas) {
+        Set<Long> bookIds = new HashSet<>();
+        deltas.keySet().forEach(key -> {
+            if (key.bookId() != null) bookIds.add(key.bookId());
+        });
+        Map<Long, List<Long>> categories = new HashMap<>();
+        if (!bookIds.isEmpty()) {
+            for (Object[] row : bookRepository.findCategoryIdsByBookIds(bookIds)) {
+                categories.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((Long) row[1]);
+            }
+        }
+
+        Map<DailyCirculationStat.Key, long[]> rows = new HashMap<>();
+        deltas.forEach((key, counts) -> {
+            add(rows, new DailyCirculationStat.Key(key.date(), DailyCirculationStat.ALL_CATEGORIES), counts);
+            for (Long categoryId : categories.getOrDefault(key.bookId(), List.of())) {
+                add(rows, new DailyCirculationStat.Key(key.date(), categoryId), counts);
+            }
+        });
+
+        List<Object[]> params = new ArrayList<>(rows.size());
+        rows.forEach((key, counts) -> params.add(new Object[]{Date.valueOf(key.getStatDate()), key.getCategoryId(),
+                counts[CirculationEvent.Metric.LOAN.ordinal()], counts[CirculationEvent.Metric.RETURN.ordinal()],
+                counts[CirculationEvent.Metric.OVERDUE_RETURN.ordinal()], counts[CirculationEvent.Metric.FINE.ordinal()]}));
+        jdbcTemplate.batchUpdate(UPSERT, params);
+    }
+
+    private static void add(Map<DailyCirculationStat.Key, long[]> rows, DailyCirculationStat.Key key, long[] counts) {
+        long[] target = rows.computeIfAbsent(key, k -> new long[counts.length]);
+        for (int i = 0; i < counts.length; i++) target[i] += counts[i];
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.libraryBe.service;
+
+import com.example.libraryBe.event.CatalogChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Đối soát books.available_count / total_count với book_copies: sửa các sách bị lệch (dữ liệu cũ, thêm copy ngoài
+// ứng dụng, lỗi) và báo cho cache/index. Chạy khi khởi động và mỗi đêm.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CopyCountReconciler {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${application.catalog.copy-count-reconcile-cron:0 0 4 * * *}")
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        // Lượt 1 chỉ tìm sách nghi bị lệch, không ghi gì: số đếm ở đây có thể đã cũ khi có người mượn/trả song song
+        List<Long> candidates = jdbcTemplate.queryForList(
+                "SELECT b.id FROM books b LEFT JOIN (SELECT book_id, " +
+                        "COUNT(*) FILTER (WHERE status = 'AVAILABLE') AS available, COUNT(*) AS total " +
+                        "FROM book_copies GROUP BY book_id) c ON c.book_id = b.id " +
+                        "WHERE b.available_count <> COALESCE(c.available, 0) OR b.total_count <> COALESCE(c.total, 0)",
+                Long.class);
+        List<Long> fixed = new ArrayList<>();
+        for (Long bookId : candidates) {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> recount(bookId)))) fixed.add(bookId);
+        }
+        if (fixed.isEmpty()) return;
+
+        log.warn("Reconciled copy counters of {} books in {} ms", fixed.size(), System.currentTimeMillis() - start);
+        eventPublisher.publishEvent(new CatalogChangedEvent(
+                CatalogChangedEvent.Target.BOOK, CatalogChangedEvent.Change.COPIES_CHANGED, fixed));
+    }
+
+    // Khóa dòng books trước (chờ các transaction mượn/trả đang cộng bộ đếm commit xong), sau đó mới đếm lại
+    // book_copies trong câu lệnh mới để thấy đúng dữ liệu đã commit; không còn lệch thì không ghi
+    private boolean recount(Long bookId) {
+        List<Long> locked = jdbcTemplate.queryForList("SELECT id FROM books WHERE id = ? FOR UPDATE", Long.class, bookId);
+        if (locked.isEmpty()) return false;
+        return jdbcTemplate.update(
+                "UPDATE books b SET available_count = c.available, total_count = c.total " +
+                        "FROM (SELECT COUNT(*) FILTER (WHERE status = 'AVAILABLE') AS available, COUNT(*) AS total " +
+                        "FROM book_copies WHERE book_id = ?) c " +
+                        "WHERE b.id = ? AND (b.available_count <> c.available OR b.total_count <> c.total)",
+                bookId, bookId) > 0;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.libraryBe.service;
+
+import com.example.libraryBe.dto.DashboardResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// Dashboard admin được tính sẵn ở nền (application.dashboard.refresh-ms) và trả từ snapshot trong RAM, nên nhiều admin
+// mở dashboard tự làm mới cũng không query DB. Snapshot có generatedAt; cần số mới ngay thì gọi refresh().
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardSnapshot {
+
+    private final AdminDashboardService dashboardService;
+    private final AtomicReference<DashboardResponse> snapshot = new AtomicReference<>();
+
+    public DashboardResponse get() {
+        DashboardResponse current = snapshot.get();
+        // Chỉ xảy ra khi có request trước lượt làm mới đầu tiên
+        return current != null ? current : initialize();
+    }
+
+    // Nhiều request đầu tiên cùng lúc chỉ tính 1 lần
+    private synchronized DashboardResponse initialize() {
+        DashboardResponse current = snapshot.get();
+        return current != null ? current : refresh();
+    }
+
+    // Biểu đồ khác mặc định (7 ngày, theo ngày) thì ghép biểu đồ đọc từ bảng tổng hợp vào snapshot
+    public DashboardResponse get(int days, AdminDashboardService.ChartBucket bucket) {
+        DashboardResponse current = get();
+        if (days == AdminDashboardService.DEFAULT_CHART_RANGE && bucket == AdminDashboardService.ChartBucket.DAY) {
+            return current;
+        }
+        return current.toBuilder().loanChart(dashboardService.getLoanChartData(days, bucket, null)).build();
+    }
+
+    // Lượt đầu chờ 1 chu kỳ để các index trong RAM (trending) nạp xong; trước đó request đầu tiên tự tính snapshot
+    @Scheduled(fixedDelayString = "${application.dashboard.refresh-ms:60000}",
+            initialDelayString = "${application.dashboard.refresh-ms:60000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    // Các lượt làm mới cùng lúc (lịch + admin bấm refresh) chạy lần lượt, không tính song song
+    public synchronized DashboardResponse refresh() {
+        long start = System.currentTimeMillis();
+        DashboardResponse fresh = dashboardService.getDashboardData(
+                AdminDashboardService.DEFAULT_CHART_RANGE, AdminDashboardService.ChartBucket.DAY);
+        snapshot.set(fresh);
+        log.debug("Dashboard snapshot refreshed in {} ms", System.currentTimeMillis() - start);
+        return fresh;
+    }
+}
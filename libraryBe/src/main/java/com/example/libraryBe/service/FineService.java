@@ -5,11 +5,14 @@ import com.example.libraryBe.entity.BookLoan;
 import com.example.libraryBe.repository.BookLoanRepository;
 import com.example.libraryBe.entity.Fine;
 import com.example.libraryBe.entity.User;
+import com.example.libraryBe.event.CirculationEvent;
 import com.example.libraryBe.repository.FineRepository;
 import com.example.libraryBe.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Service
@@ -19,6 +22,7 @@ public class FineService {
     private final FineRepository fineRepository;
     private final UserRepository userRepository;
     private final BookLoanRepository loanRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Fine> getMyFines(String username) {
         User user = userRepository.findByUsername(username)
@@ -46,7 +50,10 @@ public class FineService {
                 .description(request.getDescription())
                 .build();
 
-        return fineRepository.save(fine);
+        Fine saved = fineRepository.save(fine);
+        eventPublisher.publishEvent(CirculationEvent.of(CirculationEvent.Metric.FINE, LocalDate.now(),
+                loan != null ? loan.getBookCopy().getBook().getId() : null));
+        return saved;
     }
 
     public void deleteFine(Long id) {
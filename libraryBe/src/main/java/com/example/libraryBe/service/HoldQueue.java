@@ -0,0 +1,91 @@
+package com.example.libraryBe.service;
+
+import com.example.libraryBe.repository.BookHoldRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Hàng chờ WAITING của từng sách trong bộ nhớ (bản sao của book_holds) để lấy người đứng đầu mà không phải query.
+// Mỗi sách là 1 LinkedHashMap holdId -> userId theo thứ tự đến: lấy đầu hàng, thêm cuối hàng và hủy giữa hàng đều O(1).
+// Chỉ thay đổi sau khi transaction commit; DB vẫn là nguồn chính xác (HoldService khóa lại từng lượt trước khi dùng).
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HoldQueue {
+
+    private final BookHoldRepository holdRepository;
+
+    private final Map<Long, LinkedHashMap<Long, Long>> queues = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Long, LinkedHashMap<Long, Long>> loaded = new HashMap<>();
+        List<Object[]> rows = holdRepository.findWaitingQueue();
+        for (Object[] row : rows) {
+            loaded.computeIfAbsent((Long) row[0], id -> new LinkedHashMap<>()).put((Long) row[1], (Long) row[2]);
+        }
+        queues.clear();
+        queues.putAll(loaded);
+        log.info("Built hold queue: {} holds for {} books in {} ms",
+                rows.size(), loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    public void add(Long bookId, Long holdId, Long userId) {
+        LinkedHashMap<Long, Long> queue = queues.computeIfAbsent(bookId, id -> new LinkedHashMap<>());
+        synchronized (queue) {
+            queue.put(holdId, userId);
+        }
+    }
+
+    public void remove(Long bookId, Long holdId) {
+        LinkedHashMap<Long, Long> queue = queues.get(bookId);
+        if (queue == null) return;
+        synchronized (queue) {
+            queue.remove(holdId);
+        }
+    }
+
+    // Tối đa limit lượt chờ đầu hàng (holdId)
+    public List<Long> head(Long bookId, int limit) {
+        LinkedHashMap<Long, Long> queue = queues.get(bookId);
+        if (queue == null) return List.of();
+        synchronized (queue) {
+            List<Long> ids = new ArrayList<>(Math.min(limit, queue.size()));
+            Iterator<Long> it = queue.keySet().iterator();
+            while (it.hasNext() && ids.size() < limit) {
+                ids.add(it.next());
+            }
+            return ids;
+        }
+    }
+
+    public int size(Long bookId) {
+        LinkedHashMap<Long, Long> queue = queues.get(bookId);
+        if (queue == null) return 0;
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    // Chạy action sau khi transaction hiện tại commit (ngay lập tức nếu không có transaction)
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.libraryBe.service;
+
+import com.example.libraryBe.entity.*;
+import com.example.libraryBe.event.BookReturnedEvent;
+import com.example.libraryBe.event.CatalogChangedEvent;
+import com.example.libraryBe.model.BookCopyStatus;
+import com.example.libraryBe.model.HoldStatus;
+import com.example.libraryBe.model.RequestStatus;
+import com.example.libraryBe.model.RequestType;
+import com.example.libraryBe.repository.BookCopyRepository;
+import com.example.libraryBe.repository.BookHoldRepository;
+import com.example.libraryBe.repository.BookRepository;
+import com.example.libraryBe.repository.BookRequestRepository;
+import com.example.libraryBe.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+// Hàng chờ mượn sách: khi sách hết bản, yêu cầu mượn được xếp hàng; bản copy rảnh ra (trả sách, hủy giữ, nhập thêm)
+// được giữ ngay cho người đứng đầu hàng trong cùng transaction và tạo sẵn yêu cầu mượn chờ duyệt cho người đó.
+@Service
+@RequiredArgsConstructor
+public class HoldService {
+
+    // Số lượt đầu hàng thử khóa khi giữ bản copy (các lượt đang bị transaction khác giữ thì bỏ qua)
+    private static final int MAX_ATTEMPTS = 10;
+    private static final List<HoldStatus> ACTIVE = List.of(HoldStatus.WAITING, HoldStatus.READY);
+
+    private final BookHoldRepository holdRepository;
+    private final BookRequestRepository requestRepository;
+    private final BookCopyRepository bookCopyRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final HoldQueue holdQueue;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public BookHold placeHold(User user, Book book) {
+        if (holdRepository.existsByUserIdAndBookIdAndStatusIn(user.getId(), book.getId(), ACTIVE)) {
+            throw new RuntimeException("Bạn đang xếp hàng chờ cuốn sách này rồi!");
+        }
+        BookHold hold = holdRepository.save(BookHold.builder()
+                .user(user)
+                .book(book)
+                .status(HoldStatus.WAITING)
+                .build());
+        HoldQueue.afterCommit(() -> holdQueue.add(book.getId(), hold.getId(), user.getId()));
+        return hold;
+    }
+
+    public int queueLength(Long bookId) {
+        return holdQueue.size(bookId);
+    }
+
+    public List<BookHold> getMyHolds(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return holdRepository.findByUserOrderByCreatedAtDesc(user);
+    }
+
+    @Transactional
+    public void cancelHold(Long holdId, String username) {
+        BookHold hold = holdRepository.findById(holdId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy lượt chờ!"));
+        if (!hold.getUser().getUsername().equals(username)) {
+            throw new RuntimeException("Bạn không có quyền hủy lượt chờ này!");
+        }
+        if (!ACTIVE.contains(hold.getStatus())) {
+            throw new RuntimeException("Lượt chờ này đã kết thúc!");
+        }
+        boolean wasReady = hold.getStatus() == HoldStatus.READY;
+        cancel(hold);
+        // Đã được giữ bản thì yêu cầu mượn tạo kèm cũng không còn ý nghĩa
+        if (wasReady) {
+            requestRepository.deleteAll(requestRepository.findByUserIdAndBookIdAndStatus(
+                    hold.getUser().getId(), hold.getBook().getId(), RequestStatus.PENDING));
+        }
+    }
+
+    // Bản copy vừa rảnh: giữ cho người đứng đầu hàng chờ, không có ai chờ thì trả về kho (AVAILABLE)
+    // và báo cho người theo dõi sách. Copy phải là entity đang được quản lý trong transaction hiện tại.
+    @Transactional
+    public void releaseCopy(BookCopy copy) {
+        if (reserveForNext(copy)) return;
+
+        boolean wasAvailable = copy.getStatus() == BookCopyStatus.AVAILABLE;
+        copy.setStatus(BookCopyStatus.AVAILABLE);
+        bookCopyRepository.save(copy);
+        Book book = copy.getBook();
+        if (!wasAvailable) bookRepository.adjustCopyCounts(book.getId(), 1, 0);
+        eventPublisher.publishEvent(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.BOOK, CatalogChangedEvent.Change.COPIES_CHANGED, book.getId()));
+        // Người theo dõi được báo ở luồng nền sau khi commit (SubscriptionNotifier)
+        eventPublisher.publishEvent(new BookReturnedEvent(book.getId(), book.getTitle()));
+    }
+
+    // Giữ copy cho lượt chờ đầu tiên còn WAITING; trả về false nếu không còn ai chờ
+    @Transactional
+    public boolean reserveForNext(BookCopy copy) {
+        Long bookId = copy.getBook().getId();
+        List<Long> head = holdQueue.head(bookId, MAX_ATTEMPTS);
+        // Hàng chờ trong bộ nhớ trống thì không ai chờ, không tốn thêm query
+        if (head.isEmpty()) return false;
+        for (Long holdId : head) {
+            Optional<BookHold> locked = holdRepository.lockWaiting(holdId);
+            if (locked.isPresent()) {
+                reserve(locked.get(), copy);
+                return true;
+            }
+        }
+        // Các lượt đầu hàng đều đang bị transaction khác khóa hoặc đã cũ (lệch DB): hỏi thẳng DB lượt WAITING sớm nhất
+        Optional<BookHold> next = holdRepository.lockNextWaiting(bookId);
+        if (next.isEmpty()) return false;
+        reserve(next.get(), copy);
+        return true;
+    }
+
+    private void reserve(BookHold hold, BookCopy copy) {
+        Long bookId = hold.getBook().getId();
+        Long holdId = hold.getId();
+        Long userId = hold.getUser().getId();
+        hold.setStatus(HoldStatus.READY);
+        hold.setReservedCopy(copy);
+        // Bản mới nhập (AVAILABLE) chuyển sang giữ chỗ thì bớt 1 bản sẵn có; bản vừa trả thì không đổi
+        boolean wasAvailable = copy.getStatus() == BookCopyStatus.AVAILABLE;
+        copy.setStatus(BookCopyStatus.RESERVED);
+        bookCopyRepository.save(copy);
+        if (wasAvailable) bookRepository.adjustCopyCounts(bookId, -1, 0);
+
+        // Tạo sẵn yêu cầu mượn cho người được giữ sách, thủ thư duyệt như yêu cầu thường;
+        // user đã có yêu cầu chờ duyệt cho sách này thì dùng luôn yêu cầu đó, không tạo trùng
+        if (!requestRepository.existsByUserIdAndBookIdAndStatus(userId, bookId, RequestStatus.PENDING)) {
+            requestRepository.save(BookRequest.builder()
+                    .user(hold.getUser())
+                    .book(hold.getBook())
+                    .type(RequestType.BORROWING)
+                    .status(RequestStatus.PENDING)
+                    .build());
+        }
+        notificationService.notifyUsers(List.of(userId),
+                "Sách '" + hold.getBook().getTitle() + "' bạn đang chờ đã được giữ cho bạn. "
+                        + "Yêu cầu mượn đã được tạo, vui lòng chờ duyệt.");
+        HoldQueue.afterCommit(() -> holdQueue.remove(bookId, holdId));
+    }
+
+    // Khi duyệt yêu cầu mượn: lấy bản copy đã giữ cho user (nếu có) và đóng lượt chờ
+    @Transactional
+    public BookCopy takeReservedCopy(Long userId, Long bookId) {
+        return holdRepository.findFirstByUserIdAndBookIdAndStatus(userId, bookId, HoldStatus.READY)
+                .map(this::fulfill)
+                .orElse(null);
+    }
+
+    // Các lượt READY của những sách này, dùng khi duyệt hàng loạt
+    public List<BookHold> findReadyHolds(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) return List.of();
+        return holdRepository.findByStatusAndBookIdIn(HoldStatus.READY, bookIds);
+    }
+
+    public BookCopy fulfill(BookHold hold) {
+        hold.setStatus(HoldStatus.FULFILLED);
+        return hold.getReservedCopy();
+    }
+
+    // Yêu cầu mượn của user bị từ chối/hủy: hủy lượt chờ của user với sách này, bản đang giữ chuyển cho người kế tiếp
+    @Transactional
+    public void releaseHold(Long userId, Long bookId) {
+        holdRepository.findByUserIdAndBookIdAndStatusIn(userId, bookId, ACTIVE).forEach(this::cancel);
+    }
+
+    private void cancel(BookHold hold) {
+        HoldStatus previous = hold.getStatus();
+        hold.setStatus(HoldStatus.CANCELLED);
+        if (previous == HoldStatus.WAITING) {
+            Long bookId = hold.getBook().getId();
+            Long holdId = hold.getId();
+            HoldQueue.afterCommit(() -> holdQueue.remove(bookId, holdId));
+        } else if (previous == HoldStatus.READY && hold.getReservedCopy() != null) {
+            releaseCopy(hold.getReservedCopy());
+        }
+    }
+}
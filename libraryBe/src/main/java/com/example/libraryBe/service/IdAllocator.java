@@ -0,0 +1,35 @@
+package com.example.libraryBe.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Cấp id cho các lệnh INSERT native (JDBC batch) từ cùng sequence với Hibernate.
+// Sequence tăng 50 mỗi lần (pooled): mỗi nextval giữ riêng 50 id (giá trị trả về - 49 .. giá trị trả về),
+// nên lấy theo block vẫn không trùng với id Hibernate cấp.
+@Component
+@RequiredArgsConstructor
+public class IdAllocator {
+
+    public static final int BLOCK_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // sequence là tên cố định trong code (vd "books_seq"), không nhận từ input người dùng
+    public List<Long> allocate(String sequence, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        if (count <= 0) return ids;
+        int blocks = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        List<Long> highs = jdbcTemplate.queryForList(
+                "SELECT nextval('" + sequence + "') FROM generate_series(1, ?)", Long.class, blocks);
+        for (Long high : highs) {
+            for (long id = high - BLOCK_SIZE + 1; id <= high && ids.size() < count; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+}
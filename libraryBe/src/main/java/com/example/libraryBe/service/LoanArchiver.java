@@ -0,0 +1,47 @@
+package com.example.libraryBe.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Đánh dấu archived cho các phiếu đã đóng (trả/từ chối) quá application.loans.archive-after.
+// Mỗi lượt UPDATE tối đa BATCH_SIZE dòng (tự commit) để không giữ khóa lâu trên bảng lớn.
+@Slf4j
+@Component
+public class LoanArchiver {
+
+    private static final int BATCH_SIZE = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration archiveAfter;
+
+    public LoanArchiver(JdbcTemplate jdbcTemplate,
+                        @Value("${application.loans.archive-after:365d}") Duration archiveAfter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.archiveAfter = archiveAfter;
+    }
+
+    @Scheduled(cron = "${application.loans.archive-cron:0 30 3 * * *}")
+    public void archive() {
+        long start = System.currentTimeMillis();
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(archiveAfter));
+        long total = 0;
+        int updated;
+        do {
+            updated = jdbcTemplate.update("UPDATE book_loans SET archived = true WHERE id IN (" +
+                    "SELECT id FROM book_loans WHERE archived = false AND status IN ('RETURNED', 'REJECTED') " +
+                    "AND COALESCE(return_date, loan_date) < ? ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED)",
+                    cutoff, BATCH_SIZE);
+            total += updated;
+        } while (updated == BATCH_SIZE);
+        if (total > 0) {
+            log.info("Archived {} loans closed before {} in {} ms", total, cutoff, System.currentTimeMillis() - start);
+        }
+    }
+}
@@ -1,49 +1,133 @@
 package com.example.libraryBe.service;
 
+import com.example.libraryBe.dto.LoanResponse;
+import com.example.libraryBe.dto.PageResponse;
 import com.example.libraryBe.entity.*;
+import com.example.libraryBe.event.CatalogChangedEvent;
+import com.example.libraryBe.event.CirculationEvent;
 import com.example.libraryBe.model.BookCopyStatus;
 import com.example.libraryBe.model.LoanStatus;
 import com.example.libraryBe.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class LoanService {
 
+    public static final double FINE_PER_OVERDUE_DAY = 5000.0;
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final BookLoanRepository loanRepository;
     private final BookCopyRepository bookCopyRepository;
+    private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final FineRepository fineRepository;
-    private final SubscriptionRepository subscriptionRepository;
-    private final NotificationService notificationService;
+    private final HoldService holdService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public BookLoan createLoanFromRequest(User user, Book book) {
-        // Tìm bản Copy đang AVAILABLE
-        BookCopy copy = bookCopyRepository.findFirstByBookIdAndStatus(book.getId(), BookCopyStatus.AVAILABLE)
+        // User đến lượt trong hàng chờ thì dùng bản đã giữ sẵn (số bản AVAILABLE không đổi)
+        BookCopy reserved = holdService.takeReservedCopy(user.getId(), book.getId());
+        if (reserved != null) {
+            reserved.setStatus(BookCopyStatus.BORROWED);
+            bookCopyRepository.save(reserved);
+            eventPublisher.publishEvent(CirculationEvent.of(CirculationEvent.Metric.LOAN, LocalDate.now(), book.getId()));
+            return loanRepository.save(newLoan(user, reserved));
+        }
+
+        // Giữ 1 bản Copy đang AVAILABLE (FOR UPDATE SKIP LOCKED), khóa đến khi transaction commit
+        BookCopy copy = bookCopyRepository.claimAvailableCopy(book.getId())
                 .orElseThrow(() -> new RuntimeException("Sách '" + book.getTitle() + "' hiện đã hết bản lưu kho, không thể duyệt!"));
 
         copy.setStatus(BookCopyStatus.BORROWED);
         bookCopyRepository.save(copy);
+        eventPublisher.publishEvent(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.BOOK, CatalogChangedEvent.Change.COPIES_CHANGED, book.getId()));
+
+        BookLoan loan = loanRepository.save(newLoan(user, copy));
+        bookRepository.adjustCopyCounts(book.getId(), -1, 0);
+        eventPublisher.publishEvent(CirculationEvent.of(CirculationEvent.Metric.LOAN, LocalDate.now(), book.getId()));
+        return loan;
+    }
+
+    // Duyệt hàng loạt: mỗi sách giữ đủ số bản cần trong 1 câu SKIP LOCKED, đổi trạng thái các bản bằng 1 câu UPDATE
+    // và ghi phiếu mượn bằng JDBC batch. Yêu cầu đến trước được cấp bản trước.
+    // Trả về requestId -> phiếu mượn; yêu cầu không có trong kết quả là do sách đã hết bản.
+    @Transactional
+    public Map<Long, BookLoan> createLoansFromRequests(List<BookRequest> requests) {
+        Map<Long, List<BookRequest>> byBook = requests.stream()
+                .sorted(Comparator.comparing(BookRequest::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())))
+                .collect(Collectors.groupingBy(r -> r.getBook().getId(), LinkedHashMap::new, Collectors.toList()));
+
+        Map<Long, BookLoan> loans = new LinkedHashMap<>();
+        List<Long> copyIds = new ArrayList<>();
+        Map<Long, Integer> claimedBooks = new HashMap<>(); // bookId -> số bản AVAILABLE đã lấy
+
+        // Yêu cầu của người đã được giữ bản từ hàng chờ: dùng luôn bản đã giữ. Key: userId:bookId
+        Map<String, BookHold> readyHolds = holdService.findReadyHolds(byBook.keySet()).stream()
+                .collect(Collectors.toMap(h -> h.getUser().getId() + ":" + h.getBook().getId(), h -> h, (a, b) -> a));
+        for (Map.Entry<Long, List<BookRequest>> entry : byBook.entrySet()) {
+            List<BookRequest> waiting = new ArrayList<>();
+            for (BookRequest request : entry.getValue()) {
+                BookHold hold = readyHolds.remove(request.getUser().getId() + ":" + entry.getKey());
+                if (hold == null) {
+                    waiting.add(request);
+                    continue;
+                }
+                BookCopy copy = holdService.fulfill(hold);
+                copyIds.add(copy.getId());
+                loans.put(request.getId(), newLoan(request.getUser(), copy));
+            }
+            if (waiting.isEmpty()) continue;
+
+            List<BookCopy> copies = bookCopyRepository.claimAvailableCopies(entry.getKey(), waiting.size());
+            if (!copies.isEmpty()) claimedBooks.put(entry.getKey(), copies.size());
+            for (int i = 0; i < copies.size(); i++) {
+                // Trạng thái bản copy được đổi bằng câu UPDATE bên dưới, không sửa entity để tránh UPDATE từng dòng
+                BookCopy copy = copies.get(i);
+                copyIds.add(copy.getId());
+                loans.put(waiting.get(i).getId(), newLoan(waiting.get(i).getUser(), copy));
+            }
+        }
+        if (loans.isEmpty()) return loans;
+
+        bookCopyRepository.updateStatusByIds(copyIds, BookCopyStatus.BORROWED);
+        loanRepository.saveAll(loans.values());
+        eventPublisher.publishEvent(new CirculationEvent(CirculationEvent.Metric.LOAN, LocalDate.now(),
+                loans.values().stream().map(loan -> loan.getBookCopy().getBook().getId()).toList()));
+        if (!claimedBooks.isEmpty()) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Target.BOOK,
+                    CatalogChangedEvent.Change.COPIES_CHANGED, claimedBooks.keySet()));
+            claimedBooks.forEach((bookId, count) -> bookRepository.adjustCopyCounts(bookId, -count, 0));
+        }
+        return loans;
+    }
 
-        BookLoan loan = BookLoan.builder()
+    private BookLoan newLoan(User user, BookCopy copy) {
+        return BookLoan.builder()
                 .user(user)
                 .bookCopy(copy)
                 .loanDate(LocalDateTime.now())
                 .dueDate(LocalDateTime.now().plusDays(30))
                 .status(LoanStatus.BORROWED)
                 .build();
-
-        return loanRepository.save(loan);
     }
     @Transactional
     public void returnBook(Long loanId) {
+        // Khóa trước khi đọc để không chạy song song với OverdueScanner trên cùng phiếu
+        loanRepository.lockById(loanId);
         BookLoan loan = loanRepository.findById(loanId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy phiếu mượn!"));
 
@@ -57,54 +141,102 @@ public class LoanService {
         loan.setReturnDate(returnDate);
         loanRepository.save(loan);
 
-        // Trả sách về kho
-        BookCopy copy = loan.getBookCopy();
-        copy.setStatus(BookCopyStatus.AVAILABLE);
-        bookCopyRepository.save(copy);
-
-        List<Subscription> subs = subscriptionRepository.findByBookId(copy.getBook().getId());
+        // Trả sách về kho, hoặc giữ luôn cho người đứng đầu hàng chờ (khi đó không báo cho người theo dõi)
+        holdService.releaseCopy(loan.getBookCopy());
 
-        for (Subscription sub : subs) {
-            notificationService.createNotification(
-                    sub.getUser(),
-                    "Sách '" + copy.getBook().getTitle() + "' đã có hàng! Hãy mượn ngay."
-            );
+        // LOGIC TÍNH PHẠT TỰ ĐỘNG: chốt phí phạt đã cộng dồn (OverdueScanner) hoặc tạo mới nếu chưa có
+        Fine accrued = fineRepository.findByBookLoanIdInAndOverdueDaysIsNotNull(List.of(loan.getId())).stream()
+                .findFirst().orElse(null);
+        Fine fine = accrueOverdueFine(loan, accrued, returnDate.toLocalDate());
+        if (fine != null) {
+            fineRepository.save(fine);
         }
-        // LOGIC TÍNH PHẠT TỰ ĐỘNG
-        long overdueDays = ChronoUnit.DAYS.between(loan.getDueDate().toLocalDate(), returnDate.toLocalDate());
-
-        if (overdueDays > 0) {
-            // Quy định: 5.000 VND / ngày quá hạn
-            double fineAmount = overdueDays * 5000.0;
 
-            Fine fine = Fine.builder()
-                    .user(loan.getUser())
-                    .bookLoan(loan)
-                    .amount(fineAmount)
-                    .description("Quá hạn " + overdueDays + " ngày (Hạn trả: "
-                            + loan.getDueDate().toLocalDate() + ")")
-                    .build();
+        // Thống kê lưu thông: trả quá hạn tính theo ngày như phí phạt; phí phạt chỉ đếm khi mới được tạo
+        Long bookId = loan.getBookCopy().getBook().getId();
+        LocalDate today = returnDate.toLocalDate();
+        eventPublisher.publishEvent(CirculationEvent.of(CirculationEvent.Metric.RETURN, today, bookId));
+        if (today.isAfter(loan.getDueDate().toLocalDate())) {
+            eventPublisher.publishEvent(CirculationEvent.of(CirculationEvent.Metric.OVERDUE_RETURN, today, bookId));
+        }
+        if (accrued == null && fine != null) {
+            eventPublisher.publishEvent(CirculationEvent.of(CirculationEvent.Metric.FINE, today, bookId));
+        }
+    }
 
-            fineRepository.save(fine);
+    // Tính phí phạt quá hạn tính đến ngày asOf, cập nhật vào fine đã có hoặc tạo fine mới (chưa lưu).
+    // Trả về null nếu chưa quá hạn và chưa có fine.
+    public Fine accrueOverdueFine(BookLoan loan, Fine existing, LocalDate asOf) {
+        long overdueDays = ChronoUnit.DAYS.between(loan.getDueDate().toLocalDate(), asOf);
+        if (overdueDays <= 0) return existing;
+
+        // Quy định: 5.000 VND / ngày quá hạn
+        double fineAmount = overdueDays * FINE_PER_OVERDUE_DAY;
+        String description = "Quá hạn " + overdueDays + " ngày (Hạn trả: " + loan.getDueDate().toLocalDate() + ")";
+        if (existing != null) {
+            existing.setAmount(fineAmount);
+            existing.setDescription(description);
+            existing.setOverdueDays((int) overdueDays);
+            return existing;
         }
+        return Fine.builder()
+                .user(loan.getUser())
+                .bookLoan(loan)
+                .amount(fineAmount)
+                .description(description)
+                .overdueDays((int) overdueDays)
+                .build();
     }
-    public List<BookLoan> getMyLoans(String username, String statusStr) {
+    // history = false: chỉ các phiếu chưa lưu trữ (đang mượn và mới trả gần đây)
+    public List<BookLoan> getMyLoans(String username, String statusStr, boolean history) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        if (statusStr == null || statusStr.isEmpty() || statusStr.equals("ALL")) {
-            return loanRepository.findByUserOrderByLoanDateDesc(user);
+        LoanStatus status = null;
+        if (statusStr != null && !statusStr.isEmpty() && !statusStr.equals("ALL")) {
+            // Nếu có filter -> Convert String sang Enum và gọi hàm lọc
+            try {
+                status = LoanStatus.valueOf(statusStr.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                // lỗi: lấy hết
+            }
         }
-        // Nếu có filter -> Convert String sang Enum và gọi hàm lọc
-        try {
-            LoanStatus status = LoanStatus.valueOf(statusStr.toUpperCase());
-            return loanRepository.findByUserAndStatusOrderByLoanDateDesc(user, status);
-        } catch (IllegalArgumentException e) {
-            // lỗi: lấy hết
-            return loanRepository.findByUserOrderByLoanDateDesc(user);
+
+        if (status == null) {
+            return history
+                    ? loanRepository.findByUserOrderByLoanDateDesc(user)
+                    : loanRepository.findByUserAndArchivedFalseOrderByLoanDateDesc(user);
         }
+        return history
+                ? loanRepository.findByUserAndStatusOrderByLoanDateDesc(user, status)
+                : loanRepository.findByUserAndStatusAndArchivedFalseOrderByLoanDateDesc(user, status);
     }
-    public List<BookLoan> getAllLoans() {
-        return loanRepository.findAllByOrderByLoanDateDesc();
+    // Admin: lọc theo trạng thái, người mượn, sách, khoảng ngày mượn [from, to]
+    public PageResponse<LoanResponse> getAllLoans(int page, int size, String statusStr, Long userId, Long bookId,
+                                                  LocalDate from, LocalDate to, boolean history) {
+        if (page < 1) page = 1;
+        size = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        LoanStatus status = null;
+        if (statusStr != null && !statusStr.isEmpty() && !statusStr.equals("ALL")) {
+            try {
+                status = LoanStatus.valueOf(statusStr.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Trạng thái không hợp lệ!");
+            }
+        }
+
+        Page<LoanResponse> result = loanRepository.findResponsesByFilters(status, userId, bookId,
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null,
+                history, PageRequest.of(page - 1, size));
+
+        return PageResponse.<LoanResponse>builder()
+                .currentPage(page)
+                .pageSize(size)
+                .totalPages(result.getTotalPages())
+                .totalElements(result.getTotalElements())
+                .data(result.getContent())
+                .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,150 @@
+package com.example.libraryBe.service;
+
+import com.example.libraryBe.event.CatalogChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Tra tên tác giả/thể loại/NXB (không phân biệt hoa thường) -> id trong bộ nhớ.
+// Tên chưa có thì INSERT ... ON CONFLICT DO NOTHING dựa trên unique index lower(name), nên tạo đồng thời không bị trùng.
+// Tên mới được tạo trong transaction của nơi gọi (không mượn thêm connection) và chỉ vào map sau khi transaction commit.
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory") // Bảng phải được Hibernate tạo trước khi tạo index
+public class NameDictionary {
+
+    @RequiredArgsConstructor
+    public enum Kind {
+        AUTHOR("authors"), CATEGORY("categories"), PUBLISHER("publishers");
+
+        private final String table;
+    }
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Kind, Map<String, Long>> ids = new EnumMap<>(Kind.class);
+    // Chiều ngược id -> tên đã chuẩn hóa, để xóa theo id không phải duyệt cả map
+    private final Map<Kind, Map<Long, String>> keys = new EnumMap<>(Kind.class);
+
+    public NameDictionary(DataSource dataSource, JdbcTemplate jdbcTemplate) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        for (Kind kind : Kind.values()) {
+            ids.put(kind, new ConcurrentHashMap<>());
+            keys.put(kind, new ConcurrentHashMap<>());
+        }
+    }
+
+    @PostConstruct
+    void load() {
+        // Dữ liệu cũ đang trùng tên thì không tạo được index, bỏ qua để app vẫn chạy
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("db/name-dictionary.sql"));
+        populator.setContinueOnError(true);
+        populator.execute(dataSource);
+
+        for (Kind kind : Kind.values()) {
+            // Trùng tên thì giữ id nhỏ nhất
+            jdbcTemplate.query("SELECT id, name FROM " + kind.table + " ORDER BY id DESC",
+                    rs -> { put(kind, rs.getString("name"), rs.getLong("id")); });
+            log.info("Loaded {} {} names", ids.get(kind).size(), kind.table);
+        }
+    }
+
+    // Chuẩn hóa tên để hiển thị/lưu: bỏ khoảng trắng thừa, null nếu rỗng
+    public static String clean(String name) {
+        if (name == null) return null;
+        String cleaned = name.trim().replaceAll("\\s+", " ");
+        return cleaned.isEmpty() ? null : cleaned;
+    }
+
+    public Optional<Long> find(Kind kind, String name) {
+        String cleaned = clean(name);
+        return cleaned == null ? Optional.empty() : Optional.ofNullable(ids.get(kind).get(normalize(cleaned)));
+    }
+
+    // Id của tên, tạo mới nếu chưa có. Truy vấn DB không giữ lock nào của map
+    public Long resolve(Kind kind, String name) {
+        String cleaned = clean(name);
+        if (cleaned == null) throw new RuntimeException("Tên không được để trống!");
+        Long cached = ids.get(kind).get(normalize(cleaned));
+        if (cached != null) return cached;
+
+        // Transaction khác đang tạo cùng tên thì INSERT chờ nó commit/rollback, sau đó SELECT thấy đúng dòng còn lại
+        jdbcTemplate.update("INSERT INTO " + kind.table + " (id, name) VALUES (nextval('" + kind.table + "_seq'), ?) " +
+                "ON CONFLICT DO NOTHING", cleaned);
+        Long id = jdbcTemplate.queryForObject(
+                "SELECT id FROM " + kind.table + " WHERE lower(name) = lower(?) ORDER BY id LIMIT 1", Long.class, cleaned);
+
+        // Tên vừa tạo bị rollback thì không được vào map
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(kind, cleaned, id);
+                }
+            });
+        } else {
+            put(kind, cleaned, id);
+        }
+        return id;
+    }
+
+    // Giữ nguyên thứ tự, bỏ tên rỗng và tên trùng
+    public Set<Long> resolveAll(Kind kind, Collection<String> names) {
+        Set<Long> result = new LinkedHashSet<>();
+        if (names == null) return result;
+        for (String name : names) {
+            if (clean(name) != null) result.add(resolve(kind, name));
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        Kind kind = switch (event.getTarget()) {
+            case AUTHOR -> Kind.AUTHOR;
+            case CATEGORY -> Kind.CATEGORY;
+            case PUBLISHER -> Kind.PUBLISHER;
+            case BOOK -> null;
+        };
+        if (kind == null) return;
+
+        for (Long id : event.getIds()) {
+            remove(kind, id);
+            if (event.getChange() == CatalogChangedEvent.Change.DELETED) continue;
+            jdbcTemplate.query("SELECT name FROM " + kind.table + " WHERE id = ?",
+                    rs -> { put(kind, rs.getString("name"), id); }, id);
+        }
+    }
+
+    // Cập nhật 2 chiều cùng lúc; chỉ giữ lock trong RAM, không gọi DB
+    private synchronized void put(Kind kind, String name, Long id) {
+        if (clean(name) == null) return;
+        String key = normalize(name);
+        ids.get(kind).put(key, id);
+        String oldKey = keys.get(kind).put(id, key);
+        // Đổi tên: bỏ tên cũ nếu nó vẫn trỏ tới id này
+        if (oldKey != null && !oldKey.equals(key)) ids.get(kind).remove(oldKey, id);
+    }
+
+    private synchronized void remove(Kind kind, Long id) {
+        String key = keys.get(kind).remove(id);
+        if (key != null) ids.get(kind).remove(key, id);
+    }
+
+    private static String normalize(String name) {
+        return clean(name).toLowerCase(Locale.ROOT);
+    }
+}
@@ -8,6 +8,7 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -49,6 +50,14 @@ public class NotificationService {
         notificationRepository.save(notification);
     }
 
+    // Gửi cùng 1 thông báo cho nhiều user (chỉ cần id, không tải entity User), các INSERT được gom thành JDBC batch
+    public void notifyUsers(Collection<Long> userIds, String message) {
+        List<Notification> notifications = userIds.stream()
+                .map(userId -> Notification.builder().user(userRepository.getReferenceById(userId)).message(message).build())
+                .toList();
+        notificationRepository.saveAll(notifications);
+    }
+
     public void deleteNotification(Long id, String username) {
         Notification noti = notificationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
@@ -0,0 +1,127 @@
+package com.example.libraryBe.service;
+
+import com.example.libraryBe.entity.BookLoan;
+import com.example.libraryBe.entity.Fine;
+import com.example.libraryBe.entity.JobCheckpoint;
+import com.example.libraryBe.entity.Notification;
+import com.example.libraryBe.event.CirculationEvent;
+import com.example.libraryBe.repository.BookLoanRepository;
+import com.example.libraryBe.repository.FineRepository;
+import com.example.libraryBe.repository.JobCheckpointRepository;
+import com.example.libraryBe.repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Job nền quét các phiếu đang mượn đã quá hạn: cộng dồn phí phạt vào 1 fine duy nhất của phiếu và báo quá hạn 1 lần.
+// Quét theo keyset (dueDate, id) từng CHUNK_SIZE phiếu, mỗi chunk 1 transaction và lưu cursor vào job_checkpoints,
+// nên dừng giữa chừng (restart, lỗi) thì lượt sau chạy tiếp từ chunk kế tiếp.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OverdueScanner {
+
+    public static final String JOB_NAME = "overdue-scan";
+    private static final int CHUNK_SIZE = 500;
+    private static final LocalDateTime START_CURSOR = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final BookLoanRepository loanRepository;
+    private final FineRepository fineRepository;
+    private final NotificationRepository notificationRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final LoanService loanService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(cron = "${application.loans.overdue-scan-cron:0 0 * * * *}")
+    public void scan() {
+        if (!running.compareAndSet(false, true)) return;
+        try {
+            long start = System.currentTimeMillis();
+            LocalDate today = LocalDate.now();
+            JobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                    .orElseGet(() -> JobCheckpoint.builder().name(JOB_NAME).build());
+            if (checkpoint.getRunStartedAt() == null || checkpoint.getCompletedAt() != null) {
+                checkpoint.setRunStartedAt(LocalDateTime.now());
+                checkpoint.setCompletedAt(null);
+                checkpoint.setCursorTime(START_CURSOR);
+                checkpoint.setCursorId(0L);
+            } else {
+                log.info("Resuming overdue scan from ({}, {})", checkpoint.getCursorTime(), checkpoint.getCursorId());
+            }
+
+            long processed = 0;
+            int count;
+            while ((count = processChunk(checkpoint, today)) > 0) {
+                processed += count;
+            }
+
+            checkpoint.setCompletedAt(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
+            log.info("Overdue scan: {} loans in {} ms", processed, System.currentTimeMillis() - start);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Xử lý 1 chunk và lưu cursor trong cùng transaction, trả về số phiếu đã xử lý
+    private int processChunk(JobCheckpoint checkpoint, LocalDate today) {
+        Integer count = transactionTemplate.execute(status -> {
+            // Khóa các phiếu trước khi đọc: returnBook khóa cùng dòng nên không ghi đè trạng thái RETURNED
+            // và không cùng tạo phí phạt thứ 2 cho 1 phiếu
+            List<Long> ids = loanRepository.lockDueBeforeAfter(today.atStartOfDay(),
+                    checkpoint.getCursorTime(), checkpoint.getCursorId(), CHUNK_SIZE);
+            if (ids.isEmpty()) return 0;
+            List<BookLoan> loans = loanRepository.findWithDetailsByIdIn(ids);
+
+            Map<Long, Fine> accrued = fineRepository.findByBookLoanIdInAndOverdueDaysIsNotNull(
+                            loans.stream().map(BookLoan::getId).toList()).stream()
+                    .collect(Collectors.toMap(f -> f.getBookLoan().getId(), Function.identity(), (a, b) -> a));
+
+            List<Fine> newFines = new ArrayList<>();
+            List<Notification> notices = new ArrayList<>();
+            for (BookLoan loan : loans) {
+                Fine existing = accrued.get(loan.getId());
+                // Fine đã có được cập nhật tại chỗ (dirty checking), chỉ fine mới cần lưu
+                Fine fine = loanService.accrueOverdueFine(loan, existing, today);
+                if (existing == null && fine != null) newFines.add(fine);
+
+                if (loan.getOverdueNotifiedAt() == null) {
+                    loan.setOverdueNotifiedAt(LocalDateTime.now());
+                    notices.add(Notification.builder()
+                            .user(loan.getUser())
+                            .message("Sách '" + loan.getBookCopy().getBook().getTitle() + "' đã quá hạn trả (Hạn trả: "
+                                    + loan.getDueDate().toLocalDate() + "). Phí phạt "
+                                    + String.format("%,.0f", LoanService.FINE_PER_OVERDUE_DAY)
+                                    + " VND/ngày đang được cộng dồn.")
+                            .build());
+                }
+            }
+            fineRepository.saveAll(newFines);
+            if (!newFines.isEmpty()) {
+                eventPublisher.publishEvent(new CirculationEvent(CirculationEvent.Metric.FINE, today,
+                        newFines.stream().map(f -> f.getBookLoan().getBookCopy().getBook().getId()).toList()));
+            }
+            notificationRepository.saveAll(notices);
+
+            BookLoan last = loans.get(loans.size() - 1);
+            checkpoint.setCursorTime(last.getDueDate());
+            checkpoint.setCursorId(last.getId());
+            checkpointRepository.save(checkpoint);
+            return loans.size();
+        });
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.libraryBe.service;
+
+import com.example.libraryBe.event.CatalogChangedEvent;
+import com.example.libraryBe.repository.BookRepository;
+import com.example.libraryBe.util.TextNormalizer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Search backend dùng full-text search + pg_trgm của PostgreSQL, bật bằng application.catalog.search-backend=postgres
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "application.catalog.search-backend", havingValue = "postgres")
+@RequiredArgsConstructor
+public class PostgresBookSearchEngine implements BookSearchEngine {
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final BookRepository bookRepository;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void createSearchSchema() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/postgres-search.sql")).execute(dataSource);
+    }
+
+    // Điền search_vector cho các sách cũ (hoặc sách thêm khi đang chạy backend khác)
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long afterId = 0;
+        int total = 0;
+        List<Long> ids;
+        while (!(ids = bookRepository.findIdsMissingSearchVector(afterId, BACKFILL_BATCH_SIZE)).isEmpty()) {
+            List<Long> batch = ids;
+            transactionTemplate.executeWithoutResult(status -> bookRepository.refreshSearchColumns(batch));
+            afterId = ids.get(ids.size() - 1);
+            total += ids.size();
+        }
+        if (total > 0) log.info("Backfilled search columns for {} books", total);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.getChange() == CatalogChangedEvent.Change.DELETED
+                || event.getChange() == CatalogChangedEvent.Change.COPIES_CHANGED) return;
+        Collection<Long> bookIds = switch (event.getTarget()) {
+            case BOOK -> event.getIds();
+            case AUTHOR -> event.getIds().stream()
+                    .flatMap(id -> bookRepository.findIdsByAuthorId(id).stream())
+                    .collect(Collectors.toSet());
+            default -> List.of();
+        };
+        if (!bookIds.isEmpty()) {
+            bookRepository.refreshSearchColumns(bookIds);
+        }
+    }
+
+    @Override
+    public SearchResult search(String keyword, Long authorId, Long categoryId, int offset, int limit) {
+        List<String> tokens = TextNormalizer.tokenize(keyword);
+        if (tokens.isEmpty()) return new SearchResult(List.of(), 0);
+
+        List<Hit> hits = query(tokens, authorId, categoryId, null, offset, limit);
+        long total = bookRepository.fullTextCount(toTsQuery(tokens), String.join(" ", tokens), authorId, categoryId);
+        return new SearchResult(hits, total);
+    }
+
+    @Override
+    public List<Hit> searchAfter(String keyword, Long authorId, Long categoryId, Hit after, int limit) {
+        List<String> tokens = TextNormalizer.tokenize(keyword);
+        if (tokens.isEmpty()) return List.of();
+        return query(tokens, authorId, categoryId, after, 0, limit);
+    }
+
+    @Override
+    public FacetIds findAllIds(String keyword, Long authorId, Long categoryId) {
+        List<String> tokens = TextNormalizer.tokenize(keyword);
+        if (tokens.isEmpty()) return new FacetIds(List.of(), false);
+        // Không đọc hết mọi id khớp với keyword quá chung chung: facet tính trên MAX_FACET_IDS kết quả liên quan nhất,
+        // đọc dư 1 dòng để biết có bị cắt hay không
+        List<Long> ids = query(tokens, authorId, categoryId, null, 0, MAX_FACET_IDS + 1).stream()
+                .map(Hit::bookId)
+                .collect(Collectors.toList());
+        boolean truncated = ids.size() > MAX_FACET_IDS;
+        return new FacetIds(truncated ? ids.subList(0, MAX_FACET_IDS) : ids, truncated);
+    }
+
+    private List<Hit> query(List<String> tokens, Long authorId, Long categoryId, Hit after, int offset, int limit) {
+        return bookRepository.fullTextSearch(
+                        toTsQuery(tokens), String.join(" ", tokens), authorId, categoryId,
+                        after != null ? after.score() : null, after != null ? after.bookId() : null,
+                        offset, limit).stream()
+                .map(row -> new Hit(((Number) row[0]).longValue(), ((Number) row[1]).doubleValue()))
+                .collect(Collectors.toList());
+    }
+
+    // Token chỉ gồm chữ/số nên ghép thẳng vào tsquery được: "harry:* & pot:*"
+    private String toTsQuery(List<String> tokens) {
+        return tokens.stream().map(t -> t + ":*").collect(Collectors.joining(" & "));
+    }
+}
@@ -2,8 +2,10 @@ package com.example.libraryBe.service;
 
 import com.example.libraryBe.dto.SimpleRequest;
 import com.example.libraryBe.entity.Publisher;
+import com.example.libraryBe.event.CatalogChangedEvent;
 import com.example.libraryBe.repository.PublisherRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import java.util.List;
 
@@ -11,20 +13,41 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PublisherService {
     private final PublisherRepository publisherRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NameDictionary nameDictionary;
 
     public List<Publisher> getAllPublishers() { return publisherRepository.findAll(); }
 
     public Publisher createPublisher(SimpleRequest request) {
-        return publisherRepository.save(new Publisher(null, request.getName()));
+        checkNameAvailable(null, request.getName());
+        Publisher saved = publisherRepository.save(new Publisher(null, NameDictionary.clean(request.getName())));
+        eventPublisher.publishEvent(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.PUBLISHER, CatalogChangedEvent.Change.CREATED, saved.getId()));
+        return saved;
     }
 
     public Publisher updatePublisher(Long id, SimpleRequest request) {
         Publisher pub = publisherRepository.findById(id).orElseThrow(() -> new RuntimeException("Not found"));
-        pub.setName(request.getName());
-        return publisherRepository.save(pub);
+        checkNameAvailable(id, request.getName());
+        pub.setName(NameDictionary.clean(request.getName()));
+        Publisher saved = publisherRepository.save(pub);
+        eventPublisher.publishEvent(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.PUBLISHER, CatalogChangedEvent.Change.UPDATED, id));
+        return saved;
     }
 
     public void deletePublisher(Long id) {
         publisherRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.PUBLISHER, CatalogChangedEvent.Change.DELETED, id));
+    }
+
+    private void checkNameAvailable(Long id, String name) {
+        if (NameDictionary.clean(name) == null) throw new RuntimeException("Tên không được để trống!");
+        nameDictionary.find(NameDictionary.Kind.PUBLISHER, name)
+                .filter(existingId -> !existingId.equals(id))
+                .ifPresent(existingId -> {
+                    throw new RuntimeException("Nhà xuất bản '" + name.trim() + "' đã tồn tại!");
+                });
     }
 }
\ No newline at end of file
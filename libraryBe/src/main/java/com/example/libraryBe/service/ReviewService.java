@@ -4,10 +4,12 @@ import com.example.libraryBe.dto.ReviewRequest;
 import com.example.libraryBe.entity.Book;
 import com.example.libraryBe.entity.Review;
 import com.example.libraryBe.entity.User;
+import com.example.libraryBe.event.CatalogChangedEvent;
 import com.example.libraryBe.repository.BookRepository;
 import com.example.libraryBe.repository.ReviewRepository;
 import com.example.libraryBe.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +22,7 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Review> getReviewsByBook(Long bookId) {
         return reviewRepository.findByBookIdOrderByCreatedAtDesc(bookId);
@@ -70,6 +73,9 @@ public class ReviewService {
             book.setRating(Math.round(average * 10.0) / 10.0);
         }
         bookRepository.save(book);
+        // Rating nằm trong BookResponse: xóa cache và đổi ETag của sách sau khi commit
+        eventPublisher.publishEvent(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.BOOK, CatalogChangedEvent.Change.UPDATED, book.getId()));
     }
 
     @Transactional
@@ -0,0 +1,59 @@
+package com.example.libraryBe.service;
+
+import com.example.libraryBe.config.AsyncConfig;
+import com.example.libraryBe.event.BookReturnedEvent;
+import com.example.libraryBe.repository.SubscriptionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Báo "sách đã có hàng" cho người theo dõi ở luồng nền sau khi lượt trả sách đã commit,
+// nên thời gian trả sách không phụ thuộc số người theo dõi
+@Slf4j
+@Component
+public class SubscriptionNotifier {
+
+    private static final int PAGE_SIZE = 500;
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+
+    public SubscriptionNotifier(SubscriptionRepository subscriptionRepository, NotificationService notificationService,
+                                PlatformTransactionManager transactionManager) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.notificationService = notificationService;
+        // REQUIRES_NEW: executor đầy thì tác vụ chạy ngay trên luồng vừa commit (CallerRunsPolicy), transaction cũ
+        // vẫn còn gắn với luồng đó; REQUIRED sẽ tham gia vào nó và các thông báo không bao giờ được commit
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Async(AsyncConfig.NOTIFICATION_EXECUTOR)
+    @TransactionalEventListener
+    public void onBookReturned(BookReturnedEvent event) {
+        String message = "Sách '" + event.getTitle() + "' đã có hàng! Hãy mượn ngay.";
+        long start = System.currentTimeMillis();
+        long sent = 0;
+        long afterId = 0;
+        List<Object[]> page;
+        // Duyệt người theo dõi theo keyset (id subscription), mỗi trang ghi trong 1 transaction riêng
+        while (!(page = subscriptionRepository.findSubscribersAfter(
+                event.getBookId(), afterId, PageRequest.of(0, PAGE_SIZE))).isEmpty()) {
+            List<Long> userIds = page.stream().map(row -> (Long) row[1]).toList();
+            transactionTemplate.executeWithoutResult(status -> notificationService.notifyUsers(userIds, message));
+            sent += userIds.size();
+            afterId = (Long) page.get(page.size() - 1)[0];
+        }
+        if (sent > 0) {
+            log.info("Notified {} subscribers of book {} in {} ms", sent, event.getBookId(), System.currentTimeMillis() - start);
+        }
+    }
+}
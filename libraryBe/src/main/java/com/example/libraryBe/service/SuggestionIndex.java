@@ -0,0 +1,377 @@
+package com.example.libraryBe.service;
+
+import com.example.libraryBe.dto.SuggestionResponse;
+import com.example.libraryBe.entity.Author;
+import com.example.libraryBe.entity.Book;
+import com.example.libraryBe.entity.Category;
+import com.example.libraryBe.event.CatalogChangedEvent;
+import com.example.libraryBe.event.CirculationEvent;
+import com.example.libraryBe.repository.AuthorRepository;
+import com.example.libraryBe.repository.BookLoanRepository;
+import com.example.libraryBe.repository.BookRepository;
+import com.example.libraryBe.repository.CategoryRepository;
+import com.example.libraryBe.util.TextNormalizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+// Trie tiền tố cho ô gợi ý: tên sách, tác giả, thể loại (đã bỏ dấu), mỗi từ trong tên đều là điểm bắt đầu.
+// Mỗi node giữ sẵn top gợi ý của cả nhánh nên tra cứu chỉ tốn O(độ dài chuỗi gõ vào).
+// Độ phổ biến lấy số lượt mượn lúc dựng index rồi cộng dần theo từng lượt mượn mới (CirculationEvent LOAN).
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SuggestionIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final int LOAD_BATCH_SIZE = 500;
+    private static final Comparator<Entry> RANKING = Comparator.comparingDouble(Entry::weight).reversed()
+            .thenComparing(Entry::text);
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final CategoryRepository categoryRepository;
+    private final BookLoanRepository bookLoanRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+    // Khác null khi rebuild() đang dựng bản mới: các thay đổi đến trong lúc đó được áp lại lên bản mới sau khi tráo.
+    // Đọc/ghi khi giữ write lock, cùng lúc với việc áp thay đổi lên state nên mỗi thay đổi chỉ được áp 1 lần lên bản mới
+    private List<Object> missed;
+
+    private record EntryKey(SuggestionResponse.Type type, Long id) {
+    }
+
+    private record Entry(EntryKey key, String text, double weight) {
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        // Các gợi ý có một cụm từ kết thúc đúng tại node này
+        private final List<Entry> terminals = new ArrayList<>();
+        private List<Entry> top = List.of();
+    }
+
+    // Dựng bản mới ngoài lock (tác giả/thể loại chỉ chèn 1 lần với tổng độ phổ biến cuối cùng, top tính 1 lượt
+    // từ lá lên gốc), rồi mới tráo vào: tra cứu vẫn chạy trên bản cũ trong suốt lúc đọc DB
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            missed = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<Long, Long> loans = toCountMap(bookLoanRepository.countLoansGroupByBook());
+        State fresh = new State();
+        long afterId = 0;
+        List<Long> ids;
+        while (!(ids = bookRepository.findIdsAfter(afterId, PageRequest.of(0, LOAD_BATCH_SIZE))).isEmpty()) {
+            bookRepository.findByIdIn(ids).forEach(book -> fresh.loadBook(book, loans.getOrDefault(book.getId(), 0L)));
+            afterId = ids.get(ids.size() - 1);
+        }
+        // Tác giả/thể loại chưa có sách nào vẫn được gợi ý
+        authorRepository.findAll().forEach(a -> fresh.loadOwner(SuggestionResponse.Type.AUTHOR, a.getId(), a.getName()));
+        categoryRepository.findAll().forEach(c -> fresh.loadOwner(SuggestionResponse.Type.CATEGORY, c.getId(), c.getName()));
+        fresh.computeTops(fresh.root);
+
+        List<Object> pending;
+        lock.writeLock().lock();
+        try {
+            state = fresh;
+            pending = missed;
+            missed = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        pending.forEach(event -> {
+            if (event instanceof CatalogChangedEvent changed) onCatalogChanged(changed);
+            else onCirculation((CirculationEvent) event);
+        });
+        log.info("Built suggestion index: {} entries in {} ms", fresh.entries.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.getChange() == CatalogChangedEvent.Change.COPIES_CHANGED) return;
+        boolean deleted = event.getChange() == CatalogChangedEvent.Change.DELETED;
+        switch (event.getTarget()) {
+            case BOOK -> {
+                List<Book> books = deleted ? List.of() : bookRepository.findByIdIn(event.getIds());
+                Map<Long, Long> loans = deleted ? Map.of() : toCountMap(bookLoanRepository.countLoansByBookIds(event.getIds()));
+                lock.writeLock().lock();
+                try {
+                    remember(event);
+                    event.getIds().forEach(state::removeBook);
+                    books.forEach(book -> state.putBook(book, loans.getOrDefault(book.getId(), 0L)));
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            case AUTHOR -> {
+                List<Author> authors = deleted ? List.of() : authorRepository.findAllById(event.getIds());
+                lock.writeLock().lock();
+                try {
+                    remember(event);
+                    event.getIds().forEach(id -> state.removeEntry(new EntryKey(SuggestionResponse.Type.AUTHOR, id)));
+                    authors.forEach(a -> state.putOwner(SuggestionResponse.Type.AUTHOR, a.getId(), a.getName()));
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            case CATEGORY -> {
+                List<Category> categories = deleted ? List.of() : categoryRepository.findAllById(event.getIds());
+                lock.writeLock().lock();
+                try {
+                    remember(event);
+                    event.getIds().forEach(id -> state.removeEntry(new EntryKey(SuggestionResponse.Type.CATEGORY, id)));
+                    categories.forEach(c -> state.putOwner(SuggestionResponse.Type.CATEGORY, c.getId(), c.getName()));
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            case PUBLISHER -> {
+            }
+        }
+    }
+
+    // Mỗi lượt mượn cộng 1 vào độ phổ biến của sách và của các tác giả/thể loại của sách đó
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCirculation(CirculationEvent event) {
+        if (event.getMetric() != CirculationEvent.Metric.LOAN) return;
+        lock.writeLock().lock();
+        try {
+            remember(event);
+            event.getBookIds().forEach(state::addLoan);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<SuggestionResponse> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) return List.of();
+
+        lock.readLock().lock();
+        try {
+            Node node = state.root;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            if (node == null) return List.of();
+            return node.top.stream()
+                    .limit(Math.min(Math.max(limit, 1), MAX_SUGGESTIONS))
+                    .map(e -> new SuggestionResponse(e.key().type(), e.key().id(), e.text()))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Gọi khi đang giữ write lock
+    private void remember(Object event) {
+        if (missed != null) missed.add(event);
+    }
+
+    // Toàn bộ dữ liệu của index; các hàm cập nhật dần gọi khi đang giữ write lock,
+    // các hàm load* chỉ dùng lúc rebuild() dựng bản mới chưa ai đọc
+    private static class State {
+        private final Node root = new Node();
+        private final Map<EntryKey, Entry> entries = new HashMap<>();
+        // Độ phổ biến: sách theo số lượt mượn, tác giả/thể loại = tổng độ phổ biến các sách của nó
+        private final Map<Long, Double> bookWeights = new HashMap<>();
+        private final Map<Long, Set<Long>> authorsByBook = new HashMap<>();
+        private final Map<Long, Set<Long>> categoriesByBook = new HashMap<>();
+        private final Map<Long, Set<Long>> booksByAuthor = new HashMap<>();
+        private final Map<Long, Set<Long>> booksByCategory = new HashMap<>();
+
+        private void loadBook(Book book, long loanCount) {
+            link(book, loanCount);
+            Entry entry = new Entry(new EntryKey(SuggestionResponse.Type.BOOK, book.getId()), book.getTitle(),
+                    bookWeights.get(book.getId()));
+            entries.put(entry.key(), entry);
+            phrases(entry.text()).forEach(phrase -> attach(phrase, entry));
+        }
+
+        private void loadOwner(SuggestionResponse.Type type, Long id, String name) {
+            Entry entry = new Entry(new EntryKey(type, id), name, ownerWeight(type, id));
+            entries.put(entry.key(), entry);
+            phrases(entry.text()).forEach(phrase -> attach(phrase, entry));
+        }
+
+        // Tính top từ lá lên gốc, mỗi node 1 lần
+        private void computeTops(Node node) {
+            node.children.values().forEach(this::computeTops);
+            recomputeTop(node);
+        }
+
+        private void putBook(Book book, long loanCount) {
+            removeBook(book.getId());
+            link(book, loanCount);
+            putEntry(new Entry(new EntryKey(SuggestionResponse.Type.BOOK, book.getId()), book.getTitle(), bookWeights.get(book.getId())));
+            book.getAuthors().forEach(a -> putOwner(SuggestionResponse.Type.AUTHOR, a.getId(), a.getName()));
+            book.getCategories().forEach(c -> putOwner(SuggestionResponse.Type.CATEGORY, c.getId(), c.getName()));
+        }
+
+        private void link(Book book, long loanCount) {
+            // Điểm đánh giá chỉ để phân định các sách cùng số lượt mượn
+            double rating = book.getRating() != null ? book.getRating() : 0;
+            bookWeights.put(book.getId(), loanCount + rating / 10);
+            Set<Long> authorIds = book.getAuthors().stream().map(Author::getId).collect(Collectors.toSet());
+            Set<Long> categoryIds = book.getCategories().stream().map(Category::getId).collect(Collectors.toSet());
+            authorsByBook.put(book.getId(), authorIds);
+            categoriesByBook.put(book.getId(), categoryIds);
+            authorIds.forEach(id -> booksByAuthor.computeIfAbsent(id, k -> new HashSet<>()).add(book.getId()));
+            categoryIds.forEach(id -> booksByCategory.computeIfAbsent(id, k -> new HashSet<>()).add(book.getId()));
+        }
+
+        private void removeBook(Long bookId) {
+            if (bookWeights.remove(bookId) == null) return;
+            removeEntry(new EntryKey(SuggestionResponse.Type.BOOK, bookId));
+            Set<Long> authorIds = authorsByBook.remove(bookId);
+            Set<Long> categoryIds = categoriesByBook.remove(bookId);
+            authorIds.forEach(id -> detach(booksByAuthor, id, bookId));
+            categoryIds.forEach(id -> detach(booksByCategory, id, bookId));
+            // Tính lại độ phổ biến của tác giả/thể loại vừa mất một sách
+            authorIds.forEach(id -> reweight(new EntryKey(SuggestionResponse.Type.AUTHOR, id)));
+            categoryIds.forEach(id -> reweight(new EntryKey(SuggestionResponse.Type.CATEGORY, id)));
+        }
+
+        private void addLoan(Long bookId) {
+            Double weight = bookWeights.get(bookId);
+            if (weight == null) return;
+            bookWeights.put(bookId, weight + 1);
+            bump(new EntryKey(SuggestionResponse.Type.BOOK, bookId));
+            authorsByBook.get(bookId).forEach(id -> bump(new EntryKey(SuggestionResponse.Type.AUTHOR, id)));
+            categoriesByBook.get(bookId).forEach(id -> bump(new EntryKey(SuggestionResponse.Type.CATEGORY, id)));
+        }
+
+        private void bump(EntryKey key) {
+            Entry old = entries.get(key);
+            if (old != null) putEntry(new Entry(key, old.text(), old.weight() + 1));
+        }
+
+        private void putOwner(SuggestionResponse.Type type, Long id, String name) {
+            double weight = ownerWeight(type, id);
+            EntryKey key = new EntryKey(type, id);
+            Entry old = entries.get(key);
+            if (old != null && old.text().equals(name) && old.weight() == weight) return;
+            putEntry(new Entry(key, name, weight));
+        }
+
+        private double ownerWeight(SuggestionResponse.Type type, Long id) {
+            Map<Long, Set<Long>> books = type == SuggestionResponse.Type.AUTHOR ? booksByAuthor : booksByCategory;
+            return books.getOrDefault(id, Set.of()).stream()
+                    .mapToDouble(bookId -> bookWeights.getOrDefault(bookId, 0.0))
+                    .sum();
+        }
+
+        private void reweight(EntryKey key) {
+            Entry old = entries.get(key);
+            if (old != null) putOwner(key.type(), key.id(), old.text());
+        }
+
+        private static void detach(Map<Long, Set<Long>> books, Long ownerId, Long bookId) {
+            Set<Long> ids = books.get(ownerId);
+            if (ids == null) return;
+            ids.remove(bookId);
+            if (ids.isEmpty()) books.remove(ownerId);
+        }
+
+        private void putEntry(Entry entry) {
+            removeEntry(entry.key());
+            entries.put(entry.key(), entry);
+            phrases(entry.text()).forEach(phrase -> insert(phrase, entry));
+        }
+
+        private void removeEntry(EntryKey key) {
+            Entry old = entries.remove(key);
+            if (old == null) return;
+            phrases(old.text()).forEach(phrase -> delete(phrase, old));
+        }
+
+        // Gắn entry vào node cuối của cụm từ, chưa tính top (dùng khi dựng hàng loạt)
+        private Node attach(String phrase, Entry entry) {
+            Node node = root;
+            for (int i = 0; i < phrase.length(); i++) {
+                node = node.children.computeIfAbsent(phrase.charAt(i), c -> new Node());
+            }
+            if (!node.terminals.contains(entry)) node.terminals.add(entry);
+            return node;
+        }
+
+        private void insert(String phrase, Entry entry) {
+            attach(phrase, entry);
+            Deque<Node> path = new ArrayDeque<>();
+            Node node = root;
+            path.push(node);
+            for (int i = 0; i < phrase.length(); i++) {
+                node = node.children.get(phrase.charAt(i));
+                path.push(node);
+            }
+            path.forEach(this::recomputeTop);
+        }
+
+        private void delete(String phrase, Entry entry) {
+            Deque<Node> path = new ArrayDeque<>();
+            Node node = root;
+            path.push(node);
+            for (int i = 0; i < phrase.length() && node != null; i++) {
+                node = node.children.get(phrase.charAt(i));
+                if (node != null) path.push(node);
+            }
+            if (node == null) return;
+            node.terminals.remove(entry);
+
+            // Đi ngược lên gốc: bỏ các node rỗng, tính lại top cho các node còn lại
+            int depth = phrase.length();
+            Node child = null;
+            for (Node current : path) {
+                if (child != null && child.terminals.isEmpty() && child.children.isEmpty()) {
+                    current.children.remove(phrase.charAt(depth));
+                }
+                recomputeTop(current);
+                child = current;
+                depth--;
+            }
+        }
+
+        // Top của node = gộp gợi ý kết thúc tại node với top của các node con
+        private void recomputeTop(Node node) {
+            List<Entry> candidates = new ArrayList<>(node.terminals);
+            node.children.values().forEach(c -> candidates.addAll(c.top));
+            node.top = candidates.stream().distinct().sorted(RANKING).limit(MAX_SUGGESTIONS).toList();
+        }
+    }
+
+    // "Harry Potter và Hòn đá" -> "harry potter va hon da", "potter va hon da", "va hon da", ...
+    private static Set<String> phrases(String text) {
+        List<String> tokens = TextNormalizer.tokenize(text);
+        Set<String> phrases = new LinkedHashSet<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            phrases.add(String.join(" ", tokens.subList(i, tokens.size())));
+        }
+        return phrases;
+    }
+
+    // Giữ lại dấu cách cuối để "harry " không khớp "harryson"
+    private static String normalize(String query) {
+        if (query == null) return "";
+        String joined = String.join(" ", TextNormalizer.tokenize(query));
+        return !joined.isEmpty() && Character.isWhitespace(query.charAt(query.length() - 1)) ? joined + " " : joined;
+    }
+
+    private static Map<Long, Long> toCountMap(List<Object[]> rows) {
+        return rows.stream().collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.libraryBe.service;
+
+import com.example.libraryBe.event.CirculationEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+// Sách đang được mượn nhiều theo cửa sổ 24h / 7d / 30d, cập nhật dần theo từng lượt mượn (CirculationEvent LOAN).
+// Mỗi cửa sổ là 1 bảng Space-Saving giới hạn `capacity` bộ đếm, lượt mượn giảm trọng số theo hàm mũ với thời gian sống
+// trung bình bằng cửa sổ (mượn đều r lượt/cửa sổ thì điểm ~ r). Dùng forward decay: lượt mượn lúc t được cộng
+// e^((t - base) / tau) nên mọi bộ đếm cùng giảm 1 tỉ lệ, thứ tự không đổi theo thời gian và top-K chỉ là đọc K phần tử đầu.
+@Slf4j
+@Component
+public class TrendingBooks {
+
+    public enum Window {
+        DAY("24h", Duration.ofHours(24)),
+        WEEK("7d", Duration.ofDays(7)),
+        MONTH("30d", Duration.ofDays(30));
+
+        private final String param;
+        private final Duration length;
+
+        Window(String param, Duration length) {
+            this.param = param;
+            this.length = length;
+        }
+
+        public static Window fromParam(String param) {
+            for (Window window : values()) {
+                if (window.param.equalsIgnoreCase(param)) return window;
+            }
+            throw new RuntimeException("Cửa sổ thời gian không hợp lệ, chỉ hỗ trợ 24h, 7d, 30d!");
+        }
+    }
+
+    public record Entry(Long bookId, double score) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Window, SpaceSaving> sketches = new EnumMap<>(Window.class);
+    // Lượt mượn trước mốc này đã được warmUp() đọc từ DB, event của chúng bỏ qua để không cộng 2 lần
+    private volatile Instant liveFrom = Instant.MAX;
+
+    public TrendingBooks(JdbcTemplate jdbcTemplate, @Value("${application.trending.capacity:1000}") int capacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        Instant now = Instant.now();
+        for (Window window : Window.values()) {
+            sketches.put(window, new SpaceSaving(capacity, window.length, now));
+        }
+    }
+
+    // Nạp lại lượt mượn trong cửa sổ dài nhất, gộp theo giờ để không phải đọc từng phiếu.
+    // Chốt mốc cutoff trước khi đọc: phiếu trước mốc lấy từ DB, phiếu từ mốc trở đi chỉ lấy từ event
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        Instant cutoff = Instant.now();
+        liveFrom = cutoff;
+        Timestamp from = Timestamp.from(cutoff.minus(Window.MONTH.length));
+        List<Object[]> rows = jdbcTemplate.query("SELECT c.book_id, date_trunc('hour', l.loan_date) AS hour, COUNT(*) " +
+                        "FROM book_loans l JOIN book_copies c ON c.id = l.book_copy_id " +
+                        "WHERE l.loan_date >= ? AND l.loan_date < ? GROUP BY c.book_id, hour ORDER BY hour",
+                (rs, i) -> new Object[]{rs.getLong(1), rs.getTimestamp(2).toInstant(), rs.getLong(3)},
+                from, Timestamp.from(cutoff));
+        for (Object[] row : rows) {
+            record((Long) row[0], (Instant) row[1], (Long) row[2]);
+        }
+        log.info("Trending books warmed up from {} loan buckets in {} ms", rows.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCirculation(CirculationEvent event) {
+        if (event.getMetric() != CirculationEvent.Metric.LOAN) return;
+        Instant now = Instant.now();
+        if (now.isBefore(liveFrom)) return;
+        for (Long bookId : event.getBookIds()) {
+            record(bookId, now, 1);
+        }
+    }
+
+    public List<Entry> top(Window window, int limit) {
+        return sketches.get(window).top(limit, Instant.now());
+    }
+
+    private void record(Long bookId, Instant at, long count) {
+        for (SpaceSaving sketch : sketches.values()) {
+            sketch.add(bookId, at, count);
+        }
+    }
+
+    // Space-Saving: tối đa capacity sách; đầy thì sách mới thay sách có điểm thấp nhất và kế thừa điểm đó
+    // (điểm có thể bị ước lượng cao hơn thực tế tối đa bằng điểm bị thay, không bao giờ thấp hơn)
+    private static final class SpaceSaving {
+        // Khi số mũ vượt ngưỡng thì quy lại base để trọng số không tràn double
+        private static final double MAX_EXPONENT = 50;
+
+        private final int capacity;
+        private final double tauMillis;
+        private Instant base;
+
+        private final Map<Long, Counter> counters = new HashMap<>();
+        private final TreeSet<Counter> ordered = new TreeSet<>(Comparator.comparingDouble((Counter c) -> c.weight)
+                .thenComparing(c -> c.bookId));
+
+        private static final class Counter {
+            private final Long bookId;
+            private double weight;
+
+            Counter(Long bookId, double weight) {
+                this.bookId = bookId;
+                this.weight = weight;
+            }
+        }
+
+        SpaceSaving(int capacity, Duration tau, Instant base) {
+            this.capacity = capacity;
+            this.tauMillis = tau.toMillis();
+            this.base = base;
+        }
+
+        synchronized void add(Long bookId, Instant at, long count) {
+            if (exponent(at) > MAX_EXPONENT) rebase(at);
+            double weight = count * Math.exp(exponent(at));
+
+            Counter counter = counters.get(bookId);
+            if (counter == null && counters.size() >= capacity) {
+                Counter min = ordered.pollFirst();
+                counters.remove(min.bookId);
+                weight += min.weight;
+            } else if (counter != null) {
+                ordered.remove(counter);
+                weight += counter.weight;
+            }
+            counter = new Counter(bookId, weight);
+            counters.put(bookId, counter);
+            ordered.add(counter);
+        }
+
+        synchronized List<Entry> top(int limit, Instant now) {
+            double decay = Math.exp(-exponent(now));
+            List<Entry> result = new ArrayList<>(Math.min(limit, ordered.size()));
+            Iterator<Counter> it = ordered.descendingIterator();
+            while (it.hasNext() && result.size() < limit) {
+                Counter counter = it.next();
+                result.add(new Entry(counter.bookId, counter.weight * decay));
+            }
+            return result;
+        }
+
+        private double exponent(Instant at) {
+            return (at.toEpochMilli() - base.toEpochMilli()) / tauMillis;
+        }
+
+        // Nhân mọi trọng số cùng 1 hệ số nên thứ tự giữ nguyên, chỉ cần dựng lại TreeSet với giá trị mới
+        private void rebase(Instant newBase) {
+            double factor = Math.exp(-exponent(newBase));
+            List<Counter> all = new ArrayList<>(ordered);
+            ordered.clear();
+            for (Counter counter : all) {
+                counter.weight *= factor;
+                ordered.add(counter);
+            }
+            base = newBase;
+        }
+    }
+}
@@ -16,7 +16,7 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
 
     public User updateProfile(String username, UpdateProfileRequest request) {
-        User user = userRepository.findByUsername(username)
+        User user = userRepository.findWithRolesByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (request.getName() != null && !request.getName().isEmpty()) {
@@ -52,7 +52,7 @@ public class UserService {
     }
 
     public User getUserInfo(String username) {
-        return userRepository.findByUsername(username)
+        return userRepository.findWithRolesByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 }
\ No newline at end of file
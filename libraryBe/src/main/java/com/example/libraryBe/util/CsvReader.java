@@ -0,0 +1,94 @@
+package com.example.libraryBe.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Đọc CSV theo từng bản ghi (RFC 4180: ô trong dấu "", "" là dấu " trong ô, ô được phép xuống dòng).
+// Đọc tuần tự từ Reader nên không cần giữ cả file trong bộ nhớ.
+public class CsvReader {
+
+    private final Reader reader;
+    private long line = 1;
+    private long recordLine;
+    private int peeked = -2;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    // Dòng bắt đầu của bản ghi vừa đọc (tính từ 1)
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    // Bản ghi tiếp theo, null khi hết file. Bỏ qua dòng trống
+    public List<String> next() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) return null;
+            if (c == '\r' || c == '\n') {
+                skipLineBreak(c);
+                continue;
+            }
+            unread(c);
+            break;
+        }
+
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            int c = read();
+            if (quoted) {
+                if (c == -1) throw new IOException("Thiếu dấu \" đóng ở bản ghi dòng " + recordLine);
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(next);
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == -1 || c == '\r' || c == '\n') {
+                fields.add(field.toString());
+                if (c != -1) skipLineBreak(c);
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private void skipLineBreak(int c) throws IOException {
+        line++;
+        if (c == '\r') {
+            int next = read();
+            if (next != '\n') unread(next);
+        }
+    }
+
+    private int read() throws IOException {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        peeked = c;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.libraryBe.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Cursor cho keyset pagination: vị trí (sort key, id) của phần tử cuối trang trước, mã hóa base64 để client coi là chuỗi mờ
+public record PageCursor(double sortKey, long id) {
+
+    public String encode() {
+        String raw = sortKey + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(':');
+            return new PageCursor(Double.parseDouble(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new RuntimeException("Cursor không hợp lệ!");
+        }
+    }
+}
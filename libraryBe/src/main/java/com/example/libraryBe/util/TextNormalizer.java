@@ -0,0 +1,32 @@
+package com.example.libraryBe.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Chuẩn hóa chuỗi để tìm kiếm: chữ thường + bỏ dấu tiếng Việt ("Đắc Nhân Tâm" -> "dac nhan tam")
+public final class TextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextNormalizer() {
+    }
+
+    public static String fold(String text) {
+        if (text == null) return "";
+        // 'đ' không phải ký tự tổ hợp nên NFD không tách được, phải thay tay
+        String lower = text.toLowerCase(Locale.ROOT).replace('đ', 'd');
+        return COMBINING_MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(fold(text))) {
+            if (!token.isEmpty()) tokens.add(token);
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.libraryBe.util;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+
+// Cache LRU giới hạn số phần tử, mỗi phần tử hết hạn sau ttl. Có đếm hit/miss để theo dõi
+public class TtlCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public TtlCache(int maxSize, Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        // accessOrder = true: get() đưa phần tử lên cuối, phần tử đầu là phần tử lâu không dùng nhất
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > TtlCache.this.maxSize;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || entry.expiresAt() - System.nanoTime() < 0) {
+            if (entry != null) entries.remove(key);
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value();
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateIf(BiPredicate<K, V> predicate) {
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Entry<V>> e = it.next();
+            if (predicate.test(e.getKey(), e.getValue().value())) it.remove();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+}
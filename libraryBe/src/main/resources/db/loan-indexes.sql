@@ -0,0 +1,4 @@
+-- Phiếu mượn chưa lưu trữ (archived = false) là phần "nóng" của book_loans: các index dưới đây chỉ chứa phần này
+-- nên nhỏ và không phình theo lịch sử
+CREATE INDEX IF NOT EXISTS idx_book_loans_hot_user ON book_loans (user_id, loan_date DESC) WHERE archived = false;
+CREATE INDEX IF NOT EXISTS idx_book_loans_hot_loan_date ON book_loans (loan_date DESC, id DESC) WHERE archived = false;
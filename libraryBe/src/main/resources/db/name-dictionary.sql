@@ -0,0 +1,4 @@
+-- Tên tác giả/thể loại/NXB là duy nhất không phân biệt hoa thường (NameDictionary dựa vào ON CONFLICT DO NOTHING)
+CREATE UNIQUE INDEX IF NOT EXISTS ux_authors_name_lower ON authors (lower(name));
+CREATE UNIQUE INDEX IF NOT EXISTS ux_categories_name_lower ON categories (lower(name));
+CREATE UNIQUE INDEX IF NOT EXISTS ux_publishers_name_lower ON publishers (lower(name));
@@ -0,0 +1,10 @@
+-- Cột và index cho search backend "postgres" (application.catalog.search-backend=postgres)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- Không dùng GENERATED được vì tên tác giả nằm ở bảng book_authors, app tự cập nhật khi sách/tác giả thay đổi
+ALTER TABLE books ADD COLUMN IF NOT EXISTS search_text TEXT;
+ALTER TABLE books ADD COLUMN IF NOT EXISTS search_vector TSVECTOR;
+
+CREATE INDEX IF NOT EXISTS idx_books_search_vector ON books USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_books_search_text_trgm ON books USING GIN (search_text gin_trgm_ops);
@@ -0,0 +1,59 @@
+-- Chuyển khóa chính từ IDENTITY sang sequence của Hibernate (pooled, INCREMENT BY 50) cho các bảng đã có dữ liệu.
+-- Chạy mỗi lần khởi động: bỏ IDENTITY, dùng sequence làm DEFAULT cho các lệnh INSERT native,
+-- đẩy sequence vượt qua id lớn nhất (chỉ tăng, không bao giờ lùi).
+
+ALTER TABLE authors ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE authors ALTER COLUMN id SET DEFAULT nextval('authors_seq');
+SELECT setval('authors_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM authors) + 50, (SELECT last_value FROM authors_seq)));
+
+ALTER TABLE books ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE books ALTER COLUMN id SET DEFAULT nextval('books_seq');
+SELECT setval('books_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM books) + 50, (SELECT last_value FROM books_seq)));
+
+ALTER TABLE book_copies ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE book_copies ALTER COLUMN id SET DEFAULT nextval('book_copies_seq');
+SELECT setval('book_copies_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM book_copies) + 50, (SELECT last_value FROM book_copies_seq)));
+
+ALTER TABLE book_loans ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE book_loans ALTER COLUMN id SET DEFAULT nextval('book_loans_seq');
+SELECT setval('book_loans_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM book_loans) + 50, (SELECT last_value FROM book_loans_seq)));
+
+ALTER TABLE book_requests ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE book_requests ALTER COLUMN id SET DEFAULT nextval('book_requests_seq');
+SELECT setval('book_requests_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM book_requests) + 50, (SELECT last_value FROM book_requests_seq)));
+
+ALTER TABLE categories ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE categories ALTER COLUMN id SET DEFAULT nextval('categories_seq');
+SELECT setval('categories_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM categories) + 50, (SELECT last_value FROM categories_seq)));
+
+ALTER TABLE fines ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE fines ALTER COLUMN id SET DEFAULT nextval('fines_seq');
+SELECT setval('fines_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM fines) + 50, (SELECT last_value FROM fines_seq)));
+
+ALTER TABLE notifications ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE notifications ALTER COLUMN id SET DEFAULT nextval('notifications_seq');
+SELECT setval('notifications_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM notifications) + 50, (SELECT last_value FROM notifications_seq)));
+
+ALTER TABLE permissions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE permissions ALTER COLUMN id SET DEFAULT nextval('permissions_seq');
+SELECT setval('permissions_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM permissions) + 50, (SELECT last_value FROM permissions_seq)));
+
+ALTER TABLE publishers ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE publishers ALTER COLUMN id SET DEFAULT nextval('publishers_seq');
+SELECT setval('publishers_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM publishers) + 50, (SELECT last_value FROM publishers_seq)));
+
+ALTER TABLE reviews ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE reviews ALTER COLUMN id SET DEFAULT nextval('reviews_seq');
+SELECT setval('reviews_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM reviews) + 50, (SELECT last_value FROM reviews_seq)));
+
+ALTER TABLE roles ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE roles ALTER COLUMN id SET DEFAULT nextval('roles_seq');
+SELECT setval('roles_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM roles) + 50, (SELECT last_value FROM roles_seq)));
+
+ALTER TABLE subscriptions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE subscriptions ALTER COLUMN id SET DEFAULT nextval('subscriptions_seq');
+SELECT setval('subscriptions_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM subscriptions) + 50, (SELECT last_value FROM subscriptions_seq)));
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+SELECT setval('users_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM users) + 50, (SELECT last_value FROM users_seq)));
@@ -0,0 +1,129 @@
+package com.example.libraryBe;
+
+import com.example.libraryBe.entity.Book;
+import com.example.libraryBe.entity.BookRequest;
+import com.example.libraryBe.entity.User;
+import com.example.libraryBe.model.RequestStatus;
+import com.example.libraryBe.model.RequestType;
+import com.example.libraryBe.repository.BookRepository;
+import com.example.libraryBe.repository.BookRequestRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Duyệt/từ chối hàng loạt: mỗi phần tử gửi lên có đúng 1 kết quả cùng thứ tự, sách hết bản giữa chừng thì
+// yêu cầu đến sau báo lỗi còn yêu cầu đến trước vẫn được duyệt
+@IntegrationTest
+@AutoConfigureMockMvc
+class BatchProcessTests {
+
+    private static final int COPIES = 2;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private LibraryFixture fixture;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private BookRequestRepository requestRepository;
+
+    private Book book;
+    private final List<BookRequest> requests = new ArrayList<>();
+    private final List<Long> loanIds = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        User admin = fixture.admin();
+        book = fixture.book("Batch test", COPIES);
+        // Lưu lần lượt để createdAt tăng dần (yêu cầu đến trước được cấp bản trước)
+        for (int i = 0; i < 4; i++) {
+            requests.add(requestRepository.save(BookRequest.builder()
+                    .user(admin).book(book).type(RequestType.BORROWING).status(RequestStatus.PENDING).build()));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixture.cleanUp();
+    }
+
+    @Test
+    void mixedBatchReportsOneOutcomePerItemInOrder() throws Exception {
+        Long r1 = requests.get(0).getId(), r2 = requests.get(1).getId();
+        Long r3 = requests.get(2).getId(), r4 = requests.get(3).getId();
+        String body = """
+                {"items": [
+                  {"requestId": %d, "status": "ACCEPTED"},
+                  {"requestId": null, "status": "ACCEPTED"},
+                  {"requestId": %d, "status": "DENIED"},
+                  {"requestId": %d, "status": "ACCEPTED"},
+                  {"requestId": -1, "status": "ACCEPTED"},
+                  {"requestId": %d, "status": "MAYBE"},
+                  {"requestId": %d, "status": "ACCEPTED"}
+                ]}""".formatted(r1, r4, r2, r3, r3);
+
+        String json = mockMvc.perform(post("/api/v1/requests/admin/process-batch")
+                        .with(user("admin").authorities(new SimpleGrantedAuthority("LOAN_APPROVE")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode result = objectMapper.readTree(json);
+        JsonNode results = result.get("results");
+        results.forEach(outcome -> {
+            if (outcome.hasNonNull("loanId")) loanIds.add(outcome.get("loanId").asLong());
+        });
+
+        assertThat(results).hasSize(7);
+        assertOutcome(results.get(0), r1, true, "ACCEPTED");
+        assertOutcome(results.get(1), null, false, null);
+        assertOutcome(results.get(2), r4, true, "DENIED");
+        assertOutcome(results.get(3), r2, true, "ACCEPTED");
+        assertOutcome(results.get(4), -1L, false, null);
+        // r3 gửi 2 lần: lần đầu (trạng thái sai) bị thay bởi lần sau; lần sau hết bản vì 2 bản đã cấp cho r1, r2
+        assertOutcome(results.get(5), r3, false, null);
+        assertOutcome(results.get(6), r3, false, null);
+        assertThat(results.get(6).get("message").asText()).contains("hết bản lưu kho");
+
+        assertThat(result.get("accepted").asInt()).isEqualTo(2);
+        assertThat(result.get("denied").asInt()).isEqualTo(1);
+        assertThat(result.get("failed").asInt()).isEqualTo(4);
+        assertThat(loanIds).hasSize(2);
+
+        assertThat(requestRepository.findById(r3).orElseThrow().getStatus()).isEqualTo(RequestStatus.PENDING);
+        assertThat(requestRepository.findById(r4).orElseThrow().getStatus()).isEqualTo(RequestStatus.DENIED);
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getAvailableCount()).isZero();
+    }
+
+    private static void assertOutcome(JsonNode outcome, Long requestId, boolean success, String status) {
+        if (requestId == null) {
+            assertThat(outcome.get("requestId").isNull()).isTrue();
+        } else {
+            assertThat(outcome.get("requestId").asLong()).isEqualTo(requestId);
+        }
+        assertThat(outcome.get("success").asBoolean()).isEqualTo(success);
+        if (status == null) {
+            assertThat(outcome.get("status").isNull()).isTrue();
+        } else {
+            assertThat(outcome.get("status").asText()).isEqualTo(status);
+        }
+    }
+}
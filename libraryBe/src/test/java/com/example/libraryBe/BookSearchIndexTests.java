@@ -0,0 +1,157 @@
+package com.example.libraryBe;
+
+import com.example.libraryBe.entity.Author;
+import com.example.libraryBe.entity.Book;
+import com.example.libraryBe.entity.Category;
+import com.example.libraryBe.event.CatalogChangedEvent;
+import com.example.libraryBe.repository.BookRepository;
+import com.example.libraryBe.service.BookSearchEngine.Hit;
+import com.example.libraryBe.service.BookSearchEngine.SearchResult;
+import com.example.libraryBe.service.BookSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Index tìm kiếm trong bộ nhớ: khớp tiền tố, xếp hạng, phân trang offset/keyset và cập nhật theo CatalogChangedEvent
+class BookSearchIndexTests {
+
+    private final Map<Long, Book> catalog = new HashMap<>();
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        BookRepository bookRepository = mock(BookRepository.class);
+        when(bookRepository.findByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(catalog::get).filter(Objects::nonNull).toList();
+        });
+        when(bookRepository.findIdsAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            Long afterId = invocation.getArgument(0);
+            return catalog.keySet().stream().filter(id -> id > afterId).sorted().toList();
+        });
+        index = new BookSearchIndex(bookRepository);
+
+        add(book(1L, "Lập trình Java", "Nguyễn Văn A", "Công nghệ"));
+        add(book(2L, "Java nâng cao", "Trần B", "Công nghệ"));
+        add(book(3L, "Lịch sử Việt Nam", "Nguyễn Văn A", "Lịch sử"));
+        add(book(4L, "JavaScript cơ bản", "Lê C", "Công nghệ"));
+    }
+
+    @Test
+    void matchesPrefixesWithoutDiacriticsAndRanksTitleFirst() {
+        // "java" khớp nguyên từ ở sách 1, 2 (điểm cao hơn) và khớp tiền tố "javascript" ở sách 4
+        assertThat(ids(index.search("java", null, null, 0, 10).hits())).containsExactly(2L, 1L, 4L);
+        // Bỏ dấu và khớp tác giả
+        assertThat(ids(index.search("nguyen", null, null, 0, 10).hits())).containsExactly(3L, 1L);
+        // Phải khớp tất cả các từ
+        assertThat(ids(index.search("java nang", null, null, 0, 10).hits())).containsExactly(2L);
+    }
+
+    @Test
+    void offsetPagingReturnsPageAndFullTotal() {
+        SearchResult first = index.search("java", null, null, 0, 2);
+        SearchResult second = index.search("java", null, null, 2, 2);
+        SearchResult beyond = index.search("java", null, null, 10, 2);
+
+        assertThat(ids(first.hits())).containsExactly(2L, 1L);
+        assertThat(ids(second.hits())).containsExactly(4L);
+        assertThat(beyond.hits()).isEmpty();
+        assertThat(first.total()).isEqualTo(3);
+        assertThat(beyond.total()).isEqualTo(3);
+    }
+
+    @Test
+    void keysetPagingContinuesAfterCursor() {
+        List<Hit> first = index.searchAfter("java", null, null, null, 2);
+        List<Hit> second = index.searchAfter("java", null, null, first.get(first.size() - 1), 2);
+
+        assertThat(ids(first)).containsExactly(2L, 1L);
+        assertThat(ids(second)).containsExactly(4L);
+        assertThat(index.searchAfter("java", null, null, second.get(0), 2)).isEmpty();
+    }
+
+    @Test
+    void pagesMatchFullRankingOnLargeResultSets() {
+        for (long id = 100; id < 400; id++) {
+            add(book(id, "Java tập " + id, "Tác giả " + (id % 7), "Công nghệ"));
+        }
+        List<Long> all = ids(index.search("java", null, null, 0, 1000).hits());
+        assertThat(all).hasSize(303);
+
+        List<Long> paged = new ArrayList<>();
+        Hit cursor = null;
+        List<Hit> page;
+        while (!(page = index.searchAfter("java", null, null, cursor, 25)).isEmpty()) {
+            paged.addAll(ids(page));
+            cursor = page.get(page.size() - 1);
+        }
+        assertThat(paged).isEqualTo(all);
+        assertThat(ids(index.search("java", null, null, 50, 25).hits())).isEqualTo(all.subList(50, 75));
+    }
+
+    @Test
+    void filtersByAuthorAndCategory() {
+        assertThat(ids(index.search("java", 20L, null, 0, 10).hits())).containsExactly(2L);
+        assertThat(index.findAllIds("nguyen", null, 31L).ids()).containsExactly(3L);
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() {
+        catalog.put(4L, book(4L, "TypeScript cơ bản", "Lê C", "Công nghệ"));
+        index.onCatalogChanged(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.BOOK, CatalogChangedEvent.Change.UPDATED, 4L));
+        index.onCatalogChanged(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.BOOK, CatalogChangedEvent.Change.DELETED, 2L));
+
+        assertThat(ids(index.search("java", null, null, 0, 10).hits())).containsExactly(1L);
+        assertThat(ids(index.search("typescript", null, null, 0, 10).hits())).containsExactly(4L);
+    }
+
+    @Test
+    void rebuildReplacesIndexWithCatalogContents() {
+        catalog.remove(2L);
+        catalog.put(5L, book(5L, "Java cho người mới", "Lê C", "Công nghệ"));
+        index.rebuild();
+
+        assertThat(ids(index.search("java", null, null, 0, 10).hits())).containsExactly(5L, 1L, 4L);
+    }
+
+    private void add(Book book) {
+        catalog.put(book.getId(), book);
+        index.onCatalogChanged(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.BOOK, CatalogChangedEvent.Change.CREATED, book.getId()));
+    }
+
+    // Id tác giả/thể loại lấy theo tên để các sách cùng tên dùng chung id
+    private static Book book(Long id, String title, String author, String category) {
+        return Book.builder()
+                .id(id)
+                .title(title)
+                .authors(new HashSet<>(Set.of(new Author(idOf(author), author))))
+                .categories(new HashSet<>(Set.of(new Category(idOf(category), category))))
+                .build();
+    }
+
+    private static long idOf(String name) {
+        return switch (name) {
+            case "Nguyễn Văn A" -> 10L;
+            case "Trần B" -> 20L;
+            case "Công nghệ" -> 30L;
+            case "Lịch sử" -> 31L;
+            default -> 40L + Math.abs(name.hashCode() % 1000);
+        };
+    }
+
+    private static List<Long> ids(List<Hit> hits) {
+        return hits.stream().map(Hit::bookId).toList();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.libraryBe;
+
+import com.example.libraryBe.entity.Book;
+import com.example.libraryBe.entity.BookLoan;
+import com.example.libraryBe.entity.User;
+import com.example.libraryBe.model.BookCopyStatus;
+import com.example.libraryBe.repository.BookCopyRepository;
+import com.example.libraryBe.repository.BookRepository;
+import com.example.libraryBe.service.LoanService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Nhiều lượt duyệt mượn cùng 1 sách chạy song song: mỗi bản copy chỉ được cấp cho đúng 1 phiếu mượn
+@IntegrationTest
+class CopyAllocationConcurrencyTests {
+
+    private static final int COPIES = 20;
+    private static final int APPROVALS = 60;
+
+    @Autowired
+    private LoanService loanService;
+    @Autowired
+    private LibraryFixture fixture;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private BookCopyRepository bookCopyRepository;
+
+    private Book book;
+    private final Queue<BookLoan> loans = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void seed() {
+        book = fixture.book("Concurrency test", COPIES);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixture.cleanUp();
+    }
+
+    @Test
+    void concurrentApprovalsNeverShareACopy() throws Exception {
+        User admin = fixture.admin();
+        ExecutorService executor = Executors.newFixedThreadPool(APPROVALS);
+        CountDownLatch start = new CountDownLatch(1);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < APPROVALS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    loans.add(loanService.createLoanFromRequest(admin, book));
+                } catch (RuntimeException e) {
+                    failures.add(e);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Đủ COPIES phiếu thành công, mỗi phiếu 1 bản khác nhau; các lượt còn lại báo hết bản chứ không lỗi khác
+        assertThat(loans).hasSize(COPIES);
+        assertThat(loans.stream().map(loan -> loan.getBookCopy().getId()).distinct()).hasSize(COPIES);
+        assertThat(failures).hasSize(APPROVALS - COPIES)
+                .allSatisfy(e -> assertThat(e.getMessage()).contains("hết bản lưu kho"));
+        assertThat(bookCopyRepository.countByBookIdAndStatus(book.getId(), BookCopyStatus.AVAILABLE)).isZero();
+        // Bộ đếm available_count trừ đúng 1 lần cho mỗi phiếu thành công
+        Book reloaded = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(reloaded.getAvailableCount()).isZero();
+        assertThat(reloaded.getTotalCount()).isEqualTo(COPIES);
+    }
+}
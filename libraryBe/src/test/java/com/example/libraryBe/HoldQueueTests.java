@@ -0,0 +1,135 @@
+package com.example.libraryBe;
+
+import com.example.libraryBe.entity.*;
+import com.example.libraryBe.model.BookCopyStatus;
+import com.example.libraryBe.model.HoldStatus;
+import com.example.libraryBe.model.RequestStatus;
+import com.example.libraryBe.model.RequestType;
+import com.example.libraryBe.repository.BookCopyRepository;
+import com.example.libraryBe.repository.BookHoldRepository;
+import com.example.libraryBe.repository.BookRepository;
+import com.example.libraryBe.repository.BookRequestRepository;
+import com.example.libraryBe.service.HoldQueue;
+import com.example.libraryBe.service.HoldService;
+import com.example.libraryBe.service.LoanService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Hàng chờ mượn sách: trả sách thì bản copy được giữ cho người đến trước, người đó hủy thì chuyển cho người kế tiếp
+@IntegrationTest
+class HoldQueueTests {
+
+    @Autowired
+    private HoldService holdService;
+    @Autowired
+    private HoldQueue holdQueue;
+    @Autowired
+    private LoanService loanService;
+    @Autowired
+    private LibraryFixture fixture;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private BookCopyRepository bookCopyRepository;
+    @Autowired
+    private BookHoldRepository holdRepository;
+    @Autowired
+    private BookRequestRepository requestRepository;
+
+    private Book book;
+    private BookCopy copy;
+    private BookLoan loan;
+    private User first;
+    private User second;
+
+    @BeforeEach
+    void seed() {
+        first = fixture.user("hold-first");
+        second = fixture.user("hold-second");
+        book = fixture.book("Hold test", 1);
+        copy = fixture.copies(book).get(0);
+        // Bản duy nhất đang được mượn, hai user xếp hàng theo thứ tự
+        loan = loanService.createLoanFromRequest(fixture.admin(), book);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixture.cleanUp();
+    }
+
+    @Test
+    void returnReservesCopyForFirstInQueue() {
+        BookHold firstHold = holdService.placeHold(first, book);
+        BookHold secondHold = holdService.placeHold(second, book);
+        assertThat(holdService.queueLength(book.getId())).isEqualTo(2);
+
+        loanService.returnBook(loan.getId());
+
+        assertThat(holdRepository.findById(firstHold.getId()).orElseThrow().getStatus()).isEqualTo(HoldStatus.READY);
+        assertThat(holdRepository.findById(secondHold.getId()).orElseThrow().getStatus()).isEqualTo(HoldStatus.WAITING);
+        assertThat(bookCopyRepository.findById(copy.getId()).orElseThrow().getStatus()).isEqualTo(BookCopyStatus.RESERVED);
+        assertThat(pendingRequests(first)).hasSize(1);
+        assertThat(pendingRequests(second)).isEmpty();
+        assertThat(holdService.queueLength(book.getId())).isEqualTo(1);
+        // Bản được giữ không tính là sẵn có
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getAvailableCount()).isZero();
+    }
+
+    @Test
+    void cancellingReadyHoldPassesCopyToNext() {
+        BookHold firstHold = holdService.placeHold(first, book);
+        BookHold secondHold = holdService.placeHold(second, book);
+        loanService.returnBook(loan.getId());
+
+        holdService.cancelHold(firstHold.getId(), first.getUsername());
+
+        assertThat(holdRepository.findById(firstHold.getId()).orElseThrow().getStatus()).isEqualTo(HoldStatus.CANCELLED);
+        BookHold next = holdRepository.findById(secondHold.getId()).orElseThrow();
+        assertThat(next.getStatus()).isEqualTo(HoldStatus.READY);
+        assertThat(next.getReservedCopy().getId()).isEqualTo(copy.getId());
+        assertThat(pendingRequests(first)).isEmpty();
+        assertThat(pendingRequests(second)).hasSize(1);
+        assertThat(holdService.queueLength(book.getId())).isZero();
+    }
+
+    @Test
+    void reserveFallsBackToDatabaseWhenQueueIsStale() {
+        BookHold firstHold = holdService.placeHold(first, book);
+        BookHold secondHold = holdService.placeHold(second, book);
+        // Giả lập HoldQueue trong bộ nhớ lệch DB: lượt đầu hàng đã bị hủy ở nơi khác,
+        // lượt còn chờ thì không có trong bộ nhớ (ví dụ được tạo ở instance khác)
+        firstHold.setStatus(HoldStatus.CANCELLED);
+        holdRepository.save(firstHold);
+        holdQueue.remove(book.getId(), secondHold.getId());
+
+        loanService.returnBook(loan.getId());
+
+        assertThat(holdRepository.findById(secondHold.getId()).orElseThrow().getStatus()).isEqualTo(HoldStatus.READY);
+        assertThat(bookCopyRepository.findById(copy.getId()).orElseThrow().getStatus()).isEqualTo(BookCopyStatus.RESERVED);
+    }
+
+    @Test
+    void reserveReusesExistingPendingRequest() {
+        BookHold firstHold = holdService.placeHold(first, book);
+        requestRepository.save(BookRequest.builder()
+                .user(first).book(book).type(RequestType.BORROWING).status(RequestStatus.PENDING).build());
+
+        loanService.returnBook(loan.getId());
+        assertThat(pendingRequests(first)).hasSize(1);
+
+        // Hủy lượt đã được giữ không bị lỗi vì chỉ còn đúng 1 yêu cầu chờ duyệt
+        holdService.cancelHold(firstHold.getId(), first.getUsername());
+        assertThat(pendingRequests(first)).isEmpty();
+        assertThat(bookCopyRepository.findById(copy.getId()).orElseThrow().getStatus()).isEqualTo(BookCopyStatus.AVAILABLE);
+    }
+
+    private List<BookRequest> pendingRequests(User user) {
+        return requestRepository.findByUserIdAndBookIdAndStatus(user.getId(), book.getId(), RequestStatus.PENDING);
+    }
+}
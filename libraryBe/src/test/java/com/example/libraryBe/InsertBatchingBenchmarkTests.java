@@ -0,0 +1,114 @@
+package com.example.libraryBe;
+
+import com.example.libraryBe.entity.Book;
+import com.example.libraryBe.entity.BookCopy;
+import com.example.libraryBe.entity.Notification;
+import com.example.libraryBe.entity.User;
+import com.example.libraryBe.model.BookCopyStatus;
+import com.example.libraryBe.repository.BookCopyRepository;
+import com.example.libraryBe.repository.BookRepository;
+import com.example.libraryBe.repository.NotificationRepository;
+import com.example.libraryBe.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Đo tốc độ INSERT hàng loạt khi không batch (batch size 1 = mỗi dòng 1 round trip, như thời dùng IDENTITY)
+// và khi batch theo hibernate.jdbc.batch_size. Chạy thủ công:
+// mvn test -Dtest=InsertBatchingBenchmarkTests -Dbenchmark=true
+@Slf4j
+@IntegrationTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InsertBatchingBenchmarkTests {
+
+    private static final int ROWS = 2000;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private BookCopyRepository bookCopyRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Test
+    void copyProvisioning() {
+        Long bookId = bookRepository.findIdsAfter(0L, PageRequest.of(0, 1)).get(0);
+        Function<Integer, List<BookCopy>> provision = batchSize -> insert(batchSize, () -> {
+            Book book = entityManager.getReference(Book.class, bookId);
+            List<BookCopy> copies = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                copies.add(BookCopy.builder().book(book).status(BookCopyStatus.AVAILABLE).condition("New").build());
+            }
+            return copies;
+        });
+
+        compare("copy provisioning", provision, copies ->
+                bookCopyRepository.deleteAllByIdInBatch(copies.stream().map(BookCopy::getId).toList()));
+    }
+
+    @Test
+    void notificationFanOut() {
+        User user = userRepository.findByUsername("admin").orElseThrow();
+        Function<Integer, List<Notification>> fanOut = batchSize -> insert(batchSize, () -> {
+            List<Notification> notifications = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                notifications.add(Notification.builder().user(user).message("Benchmark " + i).build());
+            }
+            return notifications;
+        });
+
+        compare("notification fan-out", fanOut, notifications ->
+                notificationRepository.deleteAllByIdInBatch(notifications.stream().map(Notification::getId).toList()));
+    }
+
+    private <T> void compare(String name, Function<Integer, List<T>> run, Consumer<List<T>> cleanUp) {
+        // Chạy 1 lượt làm nóng JIT/connection pool trước khi đo
+        cleanUp.accept(run.apply(BATCH_SIZE));
+
+        long start = System.nanoTime();
+        List<T> unbatched = run.apply(1);
+        double unbatchedMs = (System.nanoTime() - start) / 1e6;
+        cleanUp.accept(unbatched);
+
+        start = System.nanoTime();
+        List<T> batched = run.apply(BATCH_SIZE);
+        double batchedMs = (System.nanoTime() - start) / 1e6;
+        cleanUp.accept(batched);
+
+        log.info("{}, {} rows: unbatched {} ms ({} rows/s), batched {} ms ({} rows/s), speedup x{}",
+                name, ROWS, Math.round(unbatchedMs), Math.round(ROWS * 1000 / unbatchedMs),
+                Math.round(batchedMs), Math.round(ROWS * 1000 / batchedMs), String.format("%.1f", unbatchedMs / batchedMs));
+        assertThat(unbatched).hasSize(ROWS);
+        assertThat(batched).hasSize(ROWS);
+    }
+
+    private <T> List<T> insert(int batchSize, Supplier<List<T>> rows) {
+        return transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            List<T> entities = rows.get();
+            entities.forEach(entityManager::persist);
+            entityManager.flush();
+            return entities;
+        });
+    }
+}
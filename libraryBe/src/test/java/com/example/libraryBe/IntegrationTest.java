@@ -0,0 +1,23 @@
+package com.example.libraryBe;
+
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Test chạy toàn bộ ứng dụng trên PostgreSQL dựng bằng Testcontainers (profile test), không đụng DB của máy dev.
+// Máy không có Docker thì các test này được bỏ qua thay vì báo lỗi
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(IntegrationTestConfiguration.class)
+@EnabledIf(value = "com.example.libraryBe.IntegrationTestConfiguration#dockerAvailable",
+        disabledReason = "Docker không khả dụng, bỏ qua test cần PostgreSQL")
+public @interface IntegrationTest {
+}
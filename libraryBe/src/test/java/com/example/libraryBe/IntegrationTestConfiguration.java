@@ -0,0 +1,24 @@
+package com.example.libraryBe;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+// Dùng qua @IntegrationTest: mỗi context test có 1 PostgreSQL riêng (cùng image với compose.yaml), bỏ đi khi chạy xong
+@TestConfiguration(proxyBeanMethods = false)
+@Import(LibraryFixture.class)
+class IntegrationTestConfiguration {
+
+    @Bean
+    @ServiceConnection
+    PostgreSQLContainer<?> postgresContainer() {
+        return new PostgreSQLContainer<>("postgres:16-alpine");
+    }
+
+    static boolean dockerAvailable() {
+        return DockerClientFactory.instance().isDockerAvailable();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.libraryBe;
+
+import com.example.libraryBe.entity.Book;
+import com.example.libraryBe.entity.BookCopy;
+import com.example.libraryBe.entity.User;
+import com.example.libraryBe.model.BookCopyStatus;
+import com.example.libraryBe.repository.BookCopyRepository;
+import com.example.libraryBe.repository.BookRepository;
+import com.example.libraryBe.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Dữ liệu mẫu dùng chung cho các test chạy trên DB: sách kèm N bản copy (đã cộng bộ đếm), user thường, admin có sẵn.
+// Ghi nhớ sách/user đã tạo; cleanUp() xóa chúng cùng mọi dòng tham chiếu tới (phiếu mượn, yêu cầu, lượt chờ,
+// thông báo...) theo thứ tự khóa ngoại, nên gọi trong @AfterEach là đủ kể cả khi test dừng giữa chừng
+@TestComponent
+@RequiredArgsConstructor
+public class LibraryFixture {
+
+    private final UserRepository userRepository;
+    private final BookRepository bookRepository;
+    private final BookCopyRepository bookCopyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final Set<Long> bookIds = new HashSet<>();
+    private final Set<Long> userIds = new HashSet<>();
+    private final Map<Long, List<BookCopy>> copies = new HashMap<>();
+
+    // Tài khoản admin do DataSeeder tạo khi khởi động, không bị cleanUp() xóa
+    public User admin() {
+        return userRepository.findByUsername("admin").orElseThrow();
+    }
+
+    public User user(String username) {
+        User user = userRepository.save(User.builder()
+                .username(username)
+                .password("password")
+                .name(username)
+                .email(username + "@library.com")
+                .status("Active")
+                .joinedDate(LocalDateTime.now())
+                .build());
+        userIds.add(user.getId());
+        return user;
+    }
+
+    public Book book(String title, int copyCount) {
+        Book book = bookRepository.save(Book.builder().title(title).rating(0.0).build());
+        bookIds.add(book.getId());
+        List<BookCopy> created = new ArrayList<>();
+        for (int i = 0; i < copyCount; i++) {
+            created.add(BookCopy.builder().book(book).status(BookCopyStatus.AVAILABLE).condition("New").build());
+        }
+        copies.put(book.getId(), bookCopyRepository.saveAll(created));
+        if (copyCount > 0) {
+            transactionTemplate.executeWithoutResult(status -> bookRepository.adjustCopyCounts(book.getId(), copyCount, copyCount));
+        }
+        return book;
+    }
+
+    public List<BookCopy> copies(Book book) {
+        return copies.getOrDefault(book.getId(), List.of());
+    }
+
+    public void cleanUp() {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("books", bookIds.isEmpty() ? List.of(-1L) : bookIds)
+                .addValue("users", userIds.isEmpty() ? List.of(-1L) : userIds);
+        transactionTemplate.executeWithoutResult(status -> {
+            String loans = "SELECT l.id FROM book_loans l JOIN book_copies c ON c.id = l.book_copy_id "
+                    + "WHERE c.book_id IN (:books) OR l.user_id IN (:users)";
+            jdbcTemplate.update("DELETE FROM book_requests WHERE book_id IN (:books) OR user_id IN (:users) "
+                    + "OR book_loan_id IN (" + loans + ")", params);
+            jdbcTemplate.update("DELETE FROM fines WHERE user_id IN (:users) OR book_loan_id IN (" + loans + ")", params);
+            jdbcTemplate.update("DELETE FROM book_holds WHERE book_id IN (:books) OR user_id IN (:users)", params);
+            jdbcTemplate.update("DELETE FROM book_loans WHERE id IN (" + loans + ")", params);
+            jdbcTemplate.update("DELETE FROM subscriptions WHERE book_id IN (:books) OR user_id IN (:users)", params);
+            jdbcTemplate.update("DELETE FROM reviews WHERE book_id IN (:books) OR user_id IN (:users)", params);
+            jdbcTemplate.update("DELETE FROM notifications WHERE user_id IN (:users)", params);
+            jdbcTemplate.update("DELETE FROM book_copies WHERE book_id IN (:books)", params);
+            jdbcTemplate.update("DELETE FROM book_authors WHERE book_id IN (:books)", params);
+            jdbcTemplate.update("DELETE FROM book_categories WHERE book_id IN (:books)", params);
+            jdbcTemplate.update("DELETE FROM books WHERE id IN (:books)", params);
+            jdbcTemplate.update("DELETE FROM user_roles WHERE user_id IN (:users)", params);
+            jdbcTemplate.update("DELETE FROM users WHERE id IN (:users)", params);
+        });
+        bookIds.clear();
+        userIds.clear();
+        copies.clear();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.libraryBe;
+
+import com.example.libraryBe.entity.*;
+import com.example.libraryBe.model.BookCopyStatus;
+import com.example.libraryBe.model.LoanStatus;
+import com.example.libraryBe.repository.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Số câu SQL mỗi endpoint phải cố định, không tăng theo số dòng trả về (chặn N+1 khi thêm quan hệ mới)
+@IntegrationTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class QueryCountTests {
+
+    private static final int ROWS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private BookCopyRepository bookCopyRepository;
+    @Autowired
+    private BookLoanRepository loanRepository;
+    @Autowired
+    private FineRepository fineRepository;
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    private final List<Fine> fines = new ArrayList<>();
+    private final List<BookLoan> loans = new ArrayList<>();
+    private final List<BookCopy> copies = new ArrayList<>();
+    private final List<Subscription> subscriptions = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        User admin = userRepository.findByUsername("admin").orElseThrow();
+        for (Long bookId : bookRepository.findIdsAfter(0L, PageRequest.of(0, ROWS))) {
+            Book book = bookRepository.findById(bookId).orElseThrow();
+            BookCopy copy = bookCopyRepository.save(BookCopy.builder()
+                    .book(book).status(BookCopyStatus.BORROWED).condition("Good").build());
+            BookLoan loan = loanRepository.save(BookLoan.builder()
+                    .bookCopy(copy).user(admin).status(LoanStatus.BORROWED)
+                    .loanDate(LocalDateTime.now()).dueDate(LocalDateTime.now().plusDays(14)).build());
+            copies.add(copy);
+            loans.add(loan);
+            fines.add(fineRepository.save(Fine.builder()
+                    .user(admin).bookLoan(loan).amount(10000.0).description("Test").build()));
+            subscriptions.add(subscriptionRepository.save(Subscription.builder().user(admin).book(book).build()));
+        }
+        assertThat(loans).hasSize(ROWS);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fineRepository.deleteAll(fines);
+        subscriptionRepository.deleteAll(subscriptions);
+        loanRepository.deleteAll(loans);
+        bookCopyRepository.deleteAll(copies);
+    }
+
+    @Test
+    void adminFinesUseOneQuery() throws Exception {
+        assertThat(statements("/api/v1/fines/admin/all", "FINE_MANAGE")).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void myFinesLoadUserThenFines() throws Exception {
+        assertThat(statements("/api/v1/fines/my-fines")).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void adminLoansUsePageAndCountQueries() throws Exception {
+        assertThat(statements("/api/v1/loans/admin/all", "LOAN_READ")).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void myLoansLoadUserThenLoans() throws Exception {
+        assertThat(statements("/api/v1/loans/my-loans")).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void mySubscriptionsLoadUserThenSubscriptions() throws Exception {
+        assertThat(statements("/api/v1/subscriptions/my-subscriptions")).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void adminUsersUseOneQuery() throws Exception {
+        assertThat(statements("/api/v1/admin/users", "USER_READ")).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void profileUsesOneQuery() throws Exception {
+        assertThat(statements("/api/v1/users/profile")).isLessThanOrEqualTo(1);
+    }
+
+    private long statements(String url, String... authorities) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(url).with(user("admin")
+                        .authorities(Arrays.stream(authorities).map(SimpleGrantedAuthority::new).toList())))
+                .andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.libraryBe;
+
+import com.example.libraryBe.dto.ReviewRequest;
+import com.example.libraryBe.entity.Book;
+import com.example.libraryBe.entity.Review;
+import com.example.libraryBe.service.ReviewService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Thêm/xóa đánh giá đổi rating của sách: ETag chi tiết sách phải đổi, client đang giữ ETag cũ nhận 200 với rating mới
+@IntegrationTest
+@AutoConfigureMockMvc
+class ReviewEtagTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ReviewService reviewService;
+    @Autowired
+    private LibraryFixture fixture;
+
+    private Book book;
+
+    @BeforeEach
+    void seed() {
+        book = fixture.book("ETag test", 0);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixture.cleanUp();
+    }
+
+    @Test
+    void reviewChangesBookEtag() throws Exception {
+        String url = "/api/v1/public/books/" + book.getId();
+        String before = etag(url);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, before)).andExpect(status().isNotModified());
+
+        ReviewRequest request = new ReviewRequest();
+        request.setBookId(book.getId());
+        request.setRating(4);
+        request.setComment("Hay");
+        Review review = reviewService.addReview("admin", request);
+
+        String afterAdd = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rating").value(4.0))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(afterAdd).isNotEqualTo(before);
+
+        reviewService.deleteReview(review.getId(), "admin");
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, afterAdd))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rating").value(0.0));
+    }
+
+    private String etag(String url) throws Exception {
+        return mockMvc.perform(get(url)).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
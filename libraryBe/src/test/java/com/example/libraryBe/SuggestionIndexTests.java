@@ -0,0 +1,123 @@
+package com.example.libraryBe;
+
+import com.example.libraryBe.dto.SuggestionResponse;
+import com.example.libraryBe.entity.Author;
+import com.example.libraryBe.entity.Book;
+import com.example.libraryBe.entity.Category;
+import com.example.libraryBe.event.CatalogChangedEvent;
+import com.example.libraryBe.event.CirculationEvent;
+import com.example.libraryBe.repository.AuthorRepository;
+import com.example.libraryBe.repository.BookLoanRepository;
+import com.example.libraryBe.repository.BookRepository;
+import com.example.libraryBe.repository.CategoryRepository;
+import com.example.libraryBe.service.SuggestionIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Ô gợi ý: dựng trie từ DB, xếp theo số lượt mượn, cộng dần theo lượt mượn mới và giới hạn số gợi ý
+class SuggestionIndexTests {
+
+    private final Map<Long, Book> catalog = new TreeMap<>();
+    private final List<Object[]> loans = new ArrayList<>();
+    private final Author nguyenA = new Author(10L, "Nguyễn A");
+    private final Author nguyenB = new Author(11L, "Nguyễn B");
+    private final Category tech = new Category(30L, "Công nghệ");
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        BookRepository bookRepository = mock(BookRepository.class);
+        AuthorRepository authorRepository = mock(AuthorRepository.class);
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        BookLoanRepository loanRepository = mock(BookLoanRepository.class);
+        when(bookRepository.findIdsAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            Long afterId = invocation.getArgument(0);
+            return catalog.keySet().stream().filter(id -> id > afterId).toList();
+        });
+        when(bookRepository.findByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(catalog::get).filter(Objects::nonNull).toList();
+        });
+        when(authorRepository.findAll()).thenReturn(List.of(nguyenA, nguyenB));
+        when(categoryRepository.findAll()).thenReturn(List.of(tech));
+        when(loanRepository.countLoansGroupByBook()).thenReturn(loans);
+        index = new SuggestionIndex(bookRepository, authorRepository, categoryRepository, loanRepository);
+
+        catalog.put(1L, book(1L, "Java cơ bản", nguyenA));
+        catalog.put(2L, book(2L, "Java nâng cao", nguyenB));
+        catalog.put(3L, book(3L, "Javascript", nguyenB));
+        loans.add(new Object[]{1L, 1L});
+        loans.add(new Object[]{2L, 5L});
+        loans.add(new Object[]{3L, 2L});
+        index.rebuild();
+    }
+
+    @Test
+    void ranksByLoanCountAndOwnersBySumOfTheirBooks() {
+        assertThat(texts(index.suggest("java", 10))).containsExactly("Java nâng cao", "Javascript", "Java cơ bản");
+        assertThat(texts(index.suggest("java ", 10))).containsExactly("Java nâng cao", "Java cơ bản");
+        // Tác giả B có 5 + 2 lượt, tác giả A có 1 lượt
+        assertThat(texts(index.suggest("nguyen", 10))).containsExactly("Nguyễn B", "Nguyễn A");
+        assertThat(texts(index.suggest("cong", 10))).containsExactly("Công nghệ");
+    }
+
+    @Test
+    void newLoansRaiseBookAndOwners() {
+        for (int i = 0; i < 7; i++) {
+            index.onCirculation(CirculationEvent.of(CirculationEvent.Metric.LOAN, LocalDate.now(), 1L));
+        }
+        // Trả sách không đổi độ phổ biến
+        index.onCirculation(CirculationEvent.of(CirculationEvent.Metric.RETURN, LocalDate.now(), 2L));
+
+        assertThat(texts(index.suggest("java", 10))).containsExactly("Java cơ bản", "Java nâng cao", "Javascript");
+        assertThat(texts(index.suggest("nguyen", 10))).containsExactly("Nguyễn A", "Nguyễn B");
+    }
+
+    @Test
+    void clampsLimit() {
+        assertThat(index.suggest("java", -1)).hasSize(1);
+        assertThat(index.suggest("java", 0)).hasSize(1);
+        assertThat(index.suggest("java", 2)).hasSize(2);
+        for (long id = 100; id < 120; id++) catalog.put(id, book(id, "Java tập " + id, nguyenA));
+        index.rebuild();
+        assertThat(index.suggest("java", 100)).hasSize(SuggestionIndex.MAX_SUGGESTIONS);
+    }
+
+    @Test
+    void followsCatalogChanges() {
+        catalog.put(4L, book(4L, "Javelin", nguyenA));
+        index.onCatalogChanged(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.BOOK, CatalogChangedEvent.Change.CREATED, 4L));
+        index.onCatalogChanged(CatalogChangedEvent.of(
+                CatalogChangedEvent.Target.BOOK, CatalogChangedEvent.Change.DELETED, 2L));
+
+        assertThat(texts(index.suggest("jav", 10))).containsExactly("Javascript", "Java cơ bản", "Javelin");
+        // Tác giả B mất sách 2 nên còn 2 lượt
+        assertThat(texts(index.suggest("nguyen", 10))).containsExactly("Nguyễn B", "Nguyễn A");
+    }
+
+    private Book book(Long id, String title, Author author) {
+        return Book.builder()
+                .id(id)
+                .title(title)
+                .rating(0.0)
+                .authors(new HashSet<>(Set.of(author)))
+                .categories(new HashSet<>(Set.of(tech)))
+                .build();
+    }
+
+    private static List<String> texts(List<SuggestionResponse> suggestions) {
+        return suggestions.stream().map(SuggestionResponse::getText).toList();
+    }
+}
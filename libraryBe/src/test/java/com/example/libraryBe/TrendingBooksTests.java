@@ -0,0 +1,120 @@
+package com.example.libraryBe;
+
+import com.example.libraryBe.event.CirculationEvent;
+import com.example.libraryBe.service.TrendingBooks;
+import com.example.libraryBe.service.TrendingBooks.Entry;
+import com.example.libraryBe.service.TrendingBooks.Window;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Sách mượn nhiều theo cửa sổ: điểm giảm theo thời gian, Space-Saving thay sách điểm thấp nhất khi đầy,
+// warmUp() đọc lịch sử từ DB và không cộng trùng với event đến trước đó
+class TrendingBooksTests {
+
+    private static final int CAPACITY = 3;
+
+    private final List<Object[]> history = new ArrayList<>();
+    private TrendingBooks trending;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        // Mỗi dòng lịch sử là [bookId, giờ, số lượt mượn] như kết quả query gộp theo giờ
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(invocation -> history);
+        trending = new TrendingBooks(jdbcTemplate, CAPACITY);
+    }
+
+    @Test
+    void scoresDecayPerWindow() {
+        history.add(new Object[]{1L, Instant.now().minus(Duration.ofDays(10)), 10L});
+        trending.warmUp();
+
+        // 10 lượt cách đây 10 ngày: điểm = 10 * e^(-10 ngày / độ dài cửa sổ)
+        assertThat(score(Window.DAY, 1L)).isCloseTo(10 * Math.exp(-10), within(1e-4));
+        assertThat(score(Window.WEEK, 1L)).isCloseTo(10 * Math.exp(-10.0 / 7), within(1e-3));
+        assertThat(score(Window.MONTH, 1L)).isCloseTo(10 * Math.exp(-10.0 / 30), within(1e-3));
+
+        // Lượt mượn vừa xảy ra tính ~1 ở mọi cửa sổ
+        loan(2L);
+        assertThat(score(Window.DAY, 2L)).isCloseTo(1.0, within(1e-3));
+        assertThat(score(Window.MONTH, 2L)).isCloseTo(1.0, within(1e-3));
+        assertThat(ids(trending.top(Window.DAY, 10))).containsExactly(2L, 1L);
+        assertThat(ids(trending.top(Window.MONTH, 10))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void fullSketchEvictsMinimumAndNewBookInheritsItsScore() {
+        trending.warmUp();
+        loan(1L, 1L, 1L);
+        loan(2L, 2L);
+        loan(3L);
+        // Đầy 3 bộ đếm: sách 4 thay sách 3 (thấp nhất) và được tính 1 + 1
+        loan(4L);
+
+        List<Entry> top = trending.top(Window.WEEK, 10);
+        assertThat(ids(top)).containsExactly(1L, 4L, 2L);
+        assertThat(top.get(1).score()).isCloseTo(2.0, within(1e-3));
+        assertThat(score(Window.WEEK, 3L)).isNull();
+        assertThat(ids(trending.top(Window.WEEK, 2))).containsExactly(1L, 4L);
+    }
+
+    @Test
+    void rankOrderSurvivesRebase() {
+        // Mốc ở xa phía sau base (hơn 50 lần 24h) để cửa sổ 24h phải quy lại base khi cộng
+        Instant far = Instant.now().plus(Duration.ofDays(60));
+        history.add(new Object[]{1L, far, 5L});
+        history.add(new Object[]{2L, far, 3L});
+        history.add(new Object[]{3L, far.plus(Duration.ofDays(1)), 2L});
+        trending.warmUp();
+
+        List<Entry> top = trending.top(Window.DAY, 10);
+        // Sách 3: 2 * e^1 ~ 5.44, vẫn xếp trên sách 1 sau khi quy lại base
+        assertThat(ids(top)).containsExactly(3L, 1L, 2L);
+        assertThat(top.get(1).score() / top.get(2).score()).isCloseTo(5.0 / 3, within(1e-9));
+        assertThat(top.get(0).score() / top.get(1).score()).isCloseTo(2 * Math.E / 5, within(1e-9));
+    }
+
+    @Test
+    void warmUpDoesNotDoubleCountEarlierEvents() {
+        // Event đến trước warmUp: phiếu mượn đã commit nên nằm trong lịch sử đọc từ DB
+        loan(1L);
+        history.add(new Object[]{1L, Instant.now(), 1L});
+        trending.warmUp();
+        loan(1L);
+
+        assertThat(score(Window.DAY, 1L)).isCloseTo(2.0, within(1e-3));
+    }
+
+    private void loan(Long... bookIds) {
+        for (Long bookId : bookIds) {
+            trending.onCirculation(CirculationEvent.of(CirculationEvent.Metric.LOAN, LocalDate.now(), bookId));
+        }
+    }
+
+    private Double score(Window window, Long bookId) {
+        return trending.top(window, CAPACITY).stream()
+                .filter(entry -> entry.bookId().equals(bookId))
+                .map(Entry::score)
+                .findFirst().orElse(null);
+    }
+
+    private static List<Long> ids(List<Entry> entries) {
+        return entries.stream().map(Entry::bookId).toList();
+    }
+}